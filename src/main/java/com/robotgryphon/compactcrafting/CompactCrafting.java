@@ -37,6 +37,7 @@ public class CompactCrafting
 
         ModLoadingContext mlCtx = ModLoadingContext.get();
         mlCtx.registerConfig(ModConfig.Type.CLIENT, ClientConfig.CONFIG);
+        mlCtx.registerConfig(ModConfig.Type.SERVER, ServerConfig.CONFIG);
 
         Registration.init();
         ComponentRegistration.init(modBus);
@@ -0,0 +1,132 @@
+package com.robotgryphon.compactcrafting;
+
+import net.minecraftforge.common.ForgeConfigSpec;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.config.ModConfig;
+
+@Mod.EventBusSubscriber(modid = CompactCrafting.MOD_ID, bus = Mod.EventBusSubscriber.Bus.MOD)
+public class ServerConfig {
+
+    public static ForgeConfigSpec CONFIG;
+
+    private static ForgeConfigSpec.BooleanValue ASYNC_RECIPE_SCANS;
+    private static ForgeConfigSpec.IntValue RECIPE_SCAN_THREADS;
+    private static ForgeConfigSpec.IntValue RECIPE_SCAN_COMMIT_DELAY;
+    private static ForgeConfigSpec.LongValue RECIPE_SCAN_BUDGET;
+    private static ForgeConfigSpec.IntValue RECIPE_SCAN_PRIORITY_RANGE;
+    private static ForgeConfigSpec.IntValue MAX_BATCH_SIZE;
+    private static ForgeConfigSpec.IntValue CRAFT_QUEUE_DEPTH;
+    private static ForgeConfigSpec.BooleanValue SPAWN_OUTPUT_ITEMS;
+    private static ForgeConfigSpec.IntValue OUTPUT_BUFFER_STACKS;
+    private static ForgeConfigSpec.IntValue MATCH_CACHE_SIZE;
+
+    public static boolean asyncRecipeScans = true;
+    public static int recipeScanThreads = 2;
+    public static int recipeScanCommitDelay = 1;
+    public static long recipeScanBudget = 2_000_000;
+    public static int recipeScanPriorityRange = 32;
+    public static int maxBatchSize = 64;
+    public static int craftQueueDepth = 1;
+    public static boolean spawnOutputItems = true;
+    public static int outputBufferStacks = 27;
+    public static int matchCacheSize = 256;
+
+    static {
+        generateConfig();
+    }
+
+    private static void generateConfig() {
+        ForgeConfigSpec.Builder builder = new ForgeConfigSpec.Builder();
+
+        builder
+                .comment("Field Settings")
+                .push("fields");
+
+        ASYNC_RECIPE_SCANS = builder
+                .comment(
+                        "Whether fields match recipes on background threads.",
+                        "The field contents are still read on the server thread; turn this off to do everything there (useful for debugging)."
+                )
+                .define("asyncRecipeScans", true);
+
+        RECIPE_SCAN_THREADS = builder
+                .comment("How many background threads are used for recipe matching. Takes effect after a server restart.")
+                .defineInRange("recipeScanThreads", 2, 1, 8);
+
+        RECIPE_SCAN_COMMIT_DELAY = builder
+                .comment(
+                        "How many ticks after a background scan starts its result is applied. Results always land on that tick,",
+                        "however busy the threads are; a scan that isn't done by then is waited for. Raise this to give the threads",
+                        "more time before the server thread has to wait."
+                )
+                .defineInRange("recipeScanCommitDelay", 1, 1, 20);
+
+        RECIPE_SCAN_BUDGET = builder
+                .comment(
+                        "How long (in nanoseconds) each world may spend starting recipe scans per tick.",
+                        "Scans past the budget wait for the next tick; at least one scan always runs."
+                )
+                .defineInRange("recipeScanBudget", 2_000_000L, 50_000L, 50_000_000L);
+
+        RECIPE_SCAN_PRIORITY_RANGE = builder
+                .comment("Fields with a player this close (in blocks) are scanned first when scans are backed up. 0 disables this.")
+                .defineInRange("recipeScanPriorityRange", 32, 0, 256);
+
+        MAX_BATCH_SIZE = builder
+                .comment(
+                        "The most copies of a recipe one crafting cycle can make.",
+                        "Each copy takes one catalyst item; copies past the first take their components from the field's virtual inventory."
+                )
+                .defineInRange("maxBatchSize", 64, 1, 1024);
+
+        CRAFT_QUEUE_DEPTH = builder
+                .comment(
+                        "How many crafts each field can stage while one is running. Staged crafts start as soon as the running one finishes.",
+                        "0 makes fields wait for each craft to finish before the next layout can be used."
+                )
+                .defineInRange("craftQueueDepth", 1, 0, 16);
+
+        SPAWN_OUTPUT_ITEMS = builder
+                .comment(
+                        "Whether crafted items are dropped in the world when they can't go anywhere else.",
+                        "Outputs go into inventories next to a field's projectors first, then into the field's buffer. If this is on,",
+                        "outputs with no inventory to go to, or past a full buffer, are dropped. If it's off, they wait in the buffer",
+                        "and the field doesn't start new crafts while its buffer is full; only outputs of crafts that were already",
+                        "running when it filled up are dropped."
+                )
+                .define("spawnOutputItems", true);
+
+        OUTPUT_BUFFER_STACKS = builder
+                .comment("How many stacks of outputs a field holds while its inventories are full. The buffer never grows past this.")
+                .defineInRange("outputBufferStacks", 27, 0, 1024);
+
+        MATCH_CACHE_SIZE = builder
+                .comment(
+                        "How many field layouts the server remembers recipe matches for. Fields built the same as one before",
+                        "(in any rotation) reuse the result instead of matching again. 0 turns this off."
+                )
+                .defineInRange("matchCacheSize", 256, 0, 4096);
+
+        builder.pop();
+
+        CONFIG = builder.build();
+    }
+
+    @SubscribeEvent
+    public static void onLoad(final ModConfig.ModConfigEvent configEvent) {
+        if (configEvent.getConfig().getSpec() != CONFIG)
+            return;
+
+        asyncRecipeScans = ASYNC_RECIPE_SCANS.get();
+        recipeScanThreads = RECIPE_SCAN_THREADS.get();
+        recipeScanCommitDelay = RECIPE_SCAN_COMMIT_DELAY.get();
+        recipeScanBudget = RECIPE_SCAN_BUDGET.get();
+        recipeScanPriorityRange = RECIPE_SCAN_PRIORITY_RANGE.get();
+        maxBatchSize = MAX_BATCH_SIZE.get();
+        craftQueueDepth = CRAFT_QUEUE_DEPTH.get();
+        spawnOutputItems = SPAWN_OUTPUT_ITEMS.get();
+        outputBufferStacks = OUTPUT_BUFFER_STACKS.get();
+        matchCacheSize = MATCH_CACHE_SIZE.get();
+    }
+}
@@ -0,0 +1,26 @@
+package com.robotgryphon.compactcrafting.api.layers;
+
+/**
+ * A recipe layer made of a single component whose positions can be worked out from the layer size
+ * alone. Matchers that see this can check the layer with plain index math, without asking the layer
+ * for each position or keeping position sets around.
+ */
+public interface IAnalyticRecipeLayer {
+
+    /**
+     * Gets the component key this layer places.
+     */
+    String getComponent();
+
+    /**
+     * Checks if a position needs the layer's component. Positions that don't must not hold any of the
+     * recipe's components.
+     *
+     * @param x Position on the X axis, from 0.
+     * @param z Position on the Z axis, from 0.
+     * @param sizeX Size of the layer on the X axis.
+     * @param sizeZ Size of the layer on the Z axis.
+     * @return True if the component is required there.
+     */
+    boolean isRequired(int x, int z, int sizeX, int sizeZ);
+}
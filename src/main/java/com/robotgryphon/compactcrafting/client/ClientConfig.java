@@ -57,6 +57,10 @@ public class ClientConfig {
 
     @SubscribeEvent
     public static void onLoad(final ModConfig.ModConfigEvent configEvent) {
+        // Config events are fired for every config the mod registers
+        if (configEvent.getConfig().getSpec() != CONFIG)
+            return;
+
         projectorColor = extractHexColor(PROJECTOR_COLOR.get(), 0x00FF6A00);
         projectorOffColor = extractHexColor(PROJECTOR_OFF_COLOR.get(), 0x00898989);
     }
@@ -4,8 +4,12 @@ import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
 import com.robotgryphon.compactcrafting.projector.block.FieldProjectorBlock;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.world.ClientWorld;
+import net.minecraft.particles.ParticleTypes;
 import net.minecraft.util.math.BlockPos;
 
+import java.util.BitSet;
+import java.util.Random;
+
 public abstract class ClientPacketHandler {
 
     public static void handleFieldActivation(BlockPos[] projectorLocations, FieldProjectionSize fieldSize) {
@@ -31,4 +35,29 @@ public abstract class ClientPacketHandler {
             }
         });
     }
+
+    public static void handleFieldCollapse(BlockPos origin, int sizeX, int sizeY, int sizeZ, BitSet cleared) {
+        Minecraft mc = Minecraft.getInstance();
+        mc.submitAsync(() -> {
+            ClientWorld cw = mc.level;
+            if(cw == null)
+                return;
+
+            // Same spread the server used to send per block
+            Random rand = cw.getRandom();
+            for(int i = cleared.nextSetBit(0); i >= 0; i = cleared.nextSetBit(i + 1)) {
+                int x = i % sizeX;
+                int z = (i / sizeX) % sizeZ;
+                int y = i / (sizeX * sizeZ);
+                if(y >= sizeY)
+                    break;
+
+                cw.addParticle(ParticleTypes.LARGE_SMOKE,
+                        origin.getX() + x + 0.5d,
+                        origin.getY() + y + 0.5d + rand.nextGaussian() * 0.05d,
+                        origin.getZ() + z + 0.5d,
+                        rand.nextGaussian() * 0.25d, rand.nextGaussian() * 0.25d, rand.nextGaussian() * 0.25d);
+            }
+        });
+    }
 }
@@ -1,7 +1,13 @@
 package com.robotgryphon.compactcrafting.crafting;
 
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
 import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import java.util.ArrayList;
+import java.util.List;
 
 public abstract class CraftingHelper {
 
@@ -31,6 +37,95 @@ public abstract class CraftingHelper {
         return true;
     }
 
+    /**
+     * Consumes a number of items from several stacks in the world, taking from each in turn.
+     *
+     * @param items The item entities (stacks) to remove items from, in the order to use them.
+     * @param count The number of items to remove.
+     * @return True if there were enough items to remove; false (and nothing removed) otherwise.
+     */
+    public static boolean consumeCatalystItems(List<ItemEntity> items, int count) {
+        int available = 0;
+        for (ItemEntity item : items)
+            available += item.getItem().getCount();
+
+        if (available < count)
+            return false;
+
+        int remaining = count;
+        for (ItemEntity item : items) {
+            if (remaining <= 0)
+                break;
+
+            int take = Math.min(remaining, item.getItem().getCount());
+            consumeCatalystItem(item, take);
+            remaining -= take;
+        }
+
+        return true;
+    }
+
+    /**
+     * Gets how many catalyst items one copy of a recipe uses up. Every crafting path charges this
+     * much per copy; a single craft in the world has always taken one catalyst item.
+     */
+    public static int getCatalystPerCopy(MiniaturizationRecipe recipe) {
+        return 1;
+    }
+
+    /**
+     * Gets the most copies of a recipe a stack of catalysts pays for, within the configured batch size.
+     *
+     * @param recipe The recipe being crafted.
+     * @param catalystCount The number of catalyst items available.
+     * @return The number of copies; 0 if there isn't enough catalyst for one.
+     */
+    public static int getMaxBatch(MiniaturizationRecipe recipe, int catalystCount) {
+        return Math.min(catalystCount / getCatalystPerCopy(recipe), ServerConfig.maxBatchSize);
+    }
+
+    /**
+     * Gets the outputs of a batch of crafts, with outputs that stack together merged into as few stacks as possible.
+     *
+     * @param outputs The outputs of a single craft.
+     * @param batch The number of crafts.
+     * @return The merged output stacks, in the order each output first appears.
+     */
+    public static List<ItemStack> getBatchOutputs(ItemStack[] outputs, int batch) {
+        // A recipe may list the same output more than once; total them up before splitting
+        List<ItemStack> kinds = new ArrayList<>(outputs.length);
+        long[] totals = new long[outputs.length];
+        for (ItemStack output : outputs) {
+            if (output.isEmpty() || batch <= 0)
+                continue;
+
+            int kind = 0;
+            while (kind < kinds.size() && !ItemHandlerHelper.canItemStacksStack(kinds.get(kind), output))
+                kind++;
+
+            if (kind == kinds.size())
+                kinds.add(output);
+
+            totals[kind] += (long) output.getCount() * batch;
+        }
+
+        List<ItemStack> merged = new ArrayList<>();
+        for (int kind = 0; kind < kinds.size(); kind++) {
+            ItemStack output = kinds.get(kind);
+            long remaining = totals[kind];
+            int max = Math.max(1, output.getMaxStackSize());
+            while (remaining > 0) {
+                int count = (int) Math.min(max, remaining);
+                ItemStack stack = output.copy();
+                stack.setCount(count);
+                merged.add(stack);
+                remaining -= count;
+            }
+        }
+
+        return merged;
+    }
+
 //    public static void setCraftingHologram(ServerWorld world, BlockPos center) {
 //        // Create recipe hologram
 //        world.setBlockState(center, Blockss.craftingHologram.getDefaultState());
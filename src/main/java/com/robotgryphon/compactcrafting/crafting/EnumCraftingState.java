@@ -1,5 +1,9 @@
 package com.robotgryphon.compactcrafting.crafting;
 
+/**
+ * What a field is doing. A running craft takes precedence: while {@link #CRAFTING}, the field still
+ * matches whatever is built next, and a matched layout with a catalyst is staged behind the craft.
+ */
 public enum EnumCraftingState {
     NOT_MATCHED,
     MATCHED,
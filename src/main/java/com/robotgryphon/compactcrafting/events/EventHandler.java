@@ -28,6 +28,17 @@ public class EventHandler {
             FieldHelper.checkBlockPlacement((World) world, pos);
     }
 
+    /**
+     * Catches every other block change that updates its neighbors: pistons, fluids, explosions,
+     * machines and other mods' setBlock calls.
+     */
+    @SubscribeEvent
+    public static void onNeighborNotify(final BlockEvent.NeighborNotifyEvent notify) {
+        IWorld world = notify.getWorld();
+        if(world instanceof World)
+            FieldHelper.checkBlockPlacement((World) world, notify.getPos());
+    }
+
     @SubscribeEvent
     public static void onBlockDestroyed(final BlockEvent.BreakEvent blockDestroyed) {
         // Check if block is in or around a projector field
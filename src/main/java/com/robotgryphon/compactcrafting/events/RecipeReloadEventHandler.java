@@ -0,0 +1,49 @@
+package com.robotgryphon.compactcrafting.events;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.field.FieldMatchCache;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import net.minecraft.client.resources.ReloadListener;
+import net.minecraft.profiler.IProfiler;
+import net.minecraft.resources.IResourceManager;
+import net.minecraftforge.event.AddReloadListenerEvent;
+import net.minecraftforge.event.TagsUpdatedEvent;
+import net.minecraftforge.eventbus.api.SubscribeEvent;
+import net.minecraftforge.fml.common.Mod;
+import net.minecraftforge.fml.event.server.FMLServerStoppedEvent;
+
+@SuppressWarnings("unused")
+@Mod.EventBusSubscriber(modid = CompactCrafting.MOD_ID)
+public class RecipeReloadEventHandler {
+
+    @SubscribeEvent
+    public static void onAddReloadListeners(final AddReloadListenerEvent evt) {
+        evt.addListener(new ReloadListener<Void>() {
+            @Override
+            protected Void prepare(IResourceManager resourceManager, IProfiler profiler) {
+                return null;
+            }
+
+            @Override
+            protected void apply(Void nothing, IResourceManager resourceManager, IProfiler profiler) {
+                // The recipe manager may not have applied its own changes yet, so the index
+                // is only marked stale here; the next scan rebuilds it from the live recipes
+                CompactCrafting.LOGGER.debug("Datapacks reloaded; invalidating miniaturization recipe index.");
+                MiniaturizationRecipeIndex.invalidate();
+            }
+        });
+    }
+
+    @SubscribeEvent
+    public static void onTagsUpdated(final TagsUpdatedEvent evt) {
+        // Matched fields need to look again too, since components may accept different blocks now
+        MiniaturizationRecipeIndex.clearComponentCaches();
+        MiniaturizationRecipeIndex.invalidate();
+    }
+
+    @SubscribeEvent
+    public static void onServerStopped(final FMLServerStoppedEvent evt) {
+        MiniaturizationRecipeIndex.clear();
+        FieldMatchCache.get().clear();
+    }
+}
@@ -1,13 +1,25 @@
 package com.robotgryphon.compactcrafting.events;
 
 import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.field.FieldChangeQueue;
+import com.robotgryphon.compactcrafting.field.FieldItemListener;
+import com.robotgryphon.compactcrafting.field.FieldScanExecutor;
+import com.robotgryphon.compactcrafting.field.FieldScanQueue;
+import com.robotgryphon.compactcrafting.field.FieldStats;
 import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
-import com.robotgryphon.compactcrafting.field.capability.IActiveWorldFields;
+import net.minecraft.entity.item.ItemEntity;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraftforge.event.TickEvent;
+import net.minecraftforge.event.entity.EntityJoinWorldEvent;
+import net.minecraftforge.event.entity.EntityLeaveWorldEvent;
+import net.minecraftforge.event.world.ChunkEvent;
+import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.eventbus.api.SubscribeEvent;
 import net.minecraftforge.fml.common.Mod;
 import net.minecraftforge.fml.event.server.FMLServerStartedEvent;
+import net.minecraftforge.fml.event.server.FMLServerStoppingEvent;
 
 @SuppressWarnings("unused")
 @Mod.EventBusSubscriber(modid = CompactCrafting.MOD_ID)
@@ -18,23 +30,91 @@ public class WorldEventHandler {
         CompactCrafting.LOGGER.trace("Server started; calling previously active fields to validate themselves.");
         for(ServerWorld level : evt.getServer().getAllLevels()) {
             level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
-                    .resolve()
-                    .map(IActiveWorldFields::getFields)
-                    .ifPresent(fieldStream -> {
-                        fieldStream.forEach(f -> {
+                    .ifPresent(fields -> {
+                        fields.getFields().forEach(f -> {
                             f.checkLoaded(level);
-                            if(f.isLoaded())
+                            if(f.isLoaded()) {
                                 f.markFieldChanged(level);
+                                fields.wakeField(f);
+                            }
                         });
                     });
         }
     }
 
+    @SubscribeEvent
+    public static void onServerStopping(final FMLServerStoppingEvent evt) {
+        FieldScanExecutor.shutdown();
+        FieldItemListener.clear();
+        FieldChangeQueue.clear();
+        FieldScanQueue.clear();
+    }
+
+    @SubscribeEvent
+    public static void onWorldUnload(final WorldEvent.Unload evt) {
+        if(evt.getWorld() instanceof World) {
+            FieldItemListener.remove((World) evt.getWorld());
+            FieldChangeQueue.remove((World) evt.getWorld());
+            FieldScanQueue.remove((World) evt.getWorld());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onChunkLoad(final ChunkEvent.Load evt) {
+        updateChunk(evt, true);
+    }
+
+    @SubscribeEvent
+    public static void onChunkUnload(final ChunkEvent.Unload evt) {
+        updateChunk(evt, false);
+    }
+
+    private static void updateChunk(ChunkEvent evt, boolean loaded) {
+        // Proto-chunks still being generated don't count as loaded
+        if(!(evt.getWorld() instanceof World) || evt.getWorld().isClientSide() || !(evt.getChunk() instanceof Chunk))
+            return;
+
+        ((World) evt.getWorld()).getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                .ifPresent(fields -> fields.setChunkLoaded(evt.getChunk().getPos(), loaded));
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoin(final EntityJoinWorldEvent evt) {
+        World level = evt.getWorld();
+        if(level.isClientSide() || !(evt.getEntity() instanceof ItemEntity))
+            return;
+
+        FieldItemListener.get(level).onItemJoined(level, (ItemEntity) evt.getEntity());
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeave(final EntityLeaveWorldEvent evt) {
+        World level = evt.getWorld();
+        if(level.isClientSide() || !(evt.getEntity() instanceof ItemEntity))
+            return;
+
+        FieldItemListener.get(level).onItemLeft((ItemEntity) evt.getEntity());
+    }
+
     @SubscribeEvent
     public static void onWorldTick(final TickEvent.WorldTickEvent evt) {
         if(evt.phase != TickEvent.Phase.START) return;
 
         evt.world.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
-                .ifPresent(f -> f.tickFields(evt.world));
+                .ifPresent(f -> {
+                    // Hand out last tick's block changes and sort catalyst items into fields before they tick
+                    if(evt.world instanceof ServerWorld) {
+                        FieldChangeQueue.get(evt.world).flush(evt.world);
+                        FieldItemListener.get(evt.world).tick((ServerWorld) evt.world, f);
+                    }
+
+                    f.tickFields(evt.world);
+
+                    // Start whatever scans fit in this tick; fields that asked for one above are included
+                    if(evt.world instanceof ServerWorld) {
+                        FieldScanQueue.get(evt.world).tick(evt.world, f);
+                        FieldStats.tick(evt.world, f);
+                    }
+                });
     }
 }
@@ -0,0 +1,208 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.common.util.INBTSerializable;
+
+import javax.annotation.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Crafts waiting behind the one a field is running. While a craft runs, the next layout can be built,
+ * matched and given its catalyst; its blocks and catalyst are taken right away and the craft waits
+ * here, so it can start the tick the running one finishes instead of after the next build and scan.
+ */
+public class CraftQueue implements INBTSerializable<CompoundNBT> {
+
+    private final Deque<StagedCraft> staged = new ArrayDeque<>();
+
+    private long stagedCount;
+    private long completedCrafts;
+    private long completedCopies;
+    private long backToBackStarts;
+    private long lastCompletion = -1;
+    private long totalInterval;
+
+    /**
+     * Gets how many crafts can wait behind the running one.
+     */
+    public int getDepth() {
+        return ServerConfig.craftQueueDepth;
+    }
+
+    public int size() {
+        return staged.size();
+    }
+
+    public boolean isFull() {
+        return staged.size() >= getDepth();
+    }
+
+    public boolean isEmpty() {
+        return staged.isEmpty();
+    }
+
+    /**
+     * Adds a craft whose inputs were already taken.
+     */
+    public void stage(MiniaturizationRecipe recipe, int batch) {
+        staged.addLast(new StagedCraft(recipe.getId(), recipe, batch));
+        this.stagedCount++;
+    }
+
+    /**
+     * Records that the running craft finished, then takes the next craft that can still be started.
+     *
+     * @param recipes Used to look up crafts that were read from NBT.
+     * @param gameTime The game time the running craft finished at.
+     * @param batch The number of copies the running craft made.
+     * @return The craft to start now, if one was waiting.
+     */
+    public Optional<StagedCraft> next(RecipeManager recipes, long gameTime, int batch) {
+        this.completedCrafts++;
+        this.completedCopies += batch;
+        if (lastCompletion >= 0)
+            this.totalInterval += gameTime - lastCompletion;
+        this.lastCompletion = gameTime;
+
+        StagedCraft next;
+        while ((next = staged.pollFirst()) != null) {
+            if (next.resolve(recipes) == null)
+                continue;
+
+            this.backToBackStarts++;
+            return Optional.of(next);
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Empties the queue, for when the field goes away. Staged crafts already used up their blocks
+     * and catalyst, so they're paid out as if they had finished.
+     *
+     * @return The outputs of every staged craft, in full stacks.
+     */
+    public List<ItemStack> drain(RecipeManager recipes) {
+        List<ItemStack> outputs = new ArrayList<>();
+        StagedCraft craft;
+        while ((craft = staged.pollFirst()) != null) {
+            MiniaturizationRecipe recipe = craft.resolve(recipes);
+            if (recipe != null)
+                outputs.addAll(CraftingHelper.getBatchOutputs(recipe.getOutputs(), craft.batch));
+        }
+
+        return outputs;
+    }
+
+    /**
+     * Gets the number of crafts that have been staged behind a running one.
+     */
+    public long getStagedCount() {
+        return stagedCount;
+    }
+
+    public long getCompletedCrafts() {
+        return completedCrafts;
+    }
+
+    /**
+     * Gets the number of recipe copies made, counting every copy in a batch.
+     */
+    public long getCompletedCopies() {
+        return completedCopies;
+    }
+
+    /**
+     * Gets the number of crafts that started the same tick the one before them finished.
+     */
+    public long getBackToBackStarts() {
+        return backToBackStarts;
+    }
+
+    /**
+     * Gets the average number of ticks between finished crafts, or 0 before the second one.
+     */
+    public double getAverageInterval() {
+        return completedCrafts < 2 ? 0 : totalInterval / (double) (completedCrafts - 1);
+    }
+
+    @Override
+    public CompoundNBT serializeNBT() {
+        CompoundNBT nbt = new CompoundNBT();
+        ListNBT list = new ListNBT();
+        for (StagedCraft craft : staged) {
+            CompoundNBT entry = new CompoundNBT();
+            entry.putString("recipe", craft.recipeId.toString());
+            entry.putInt("batch", craft.batch);
+            list.add(entry);
+        }
+
+        nbt.put("staged", list);
+        return nbt;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundNBT nbt) {
+        staged.clear();
+        ListNBT list = nbt.getList("staged", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            CompoundNBT entry = list.getCompound(i);
+            ResourceLocation id = new ResourceLocation(entry.getString("recipe"));
+            staged.addLast(new StagedCraft(id, null, Math.max(1, entry.getInt("batch"))));
+        }
+    }
+
+    public static class StagedCraft {
+        private final ResourceLocation recipeId;
+        private final int batch;
+
+        /**
+         * Looked up from the id for crafts read from NBT.
+         */
+        @Nullable
+        private MiniaturizationRecipe recipe;
+
+        StagedCraft(ResourceLocation recipeId, @Nullable MiniaturizationRecipe recipe, int batch) {
+            this.recipeId = recipeId;
+            this.recipe = recipe;
+            this.batch = batch;
+        }
+
+        @Nullable
+        MiniaturizationRecipe resolve(RecipeManager recipes) {
+            if (recipe == null) {
+                this.recipe = recipes.byKey(recipeId)
+                        .filter(r -> r instanceof MiniaturizationRecipe)
+                        .map(r -> (MiniaturizationRecipe) r)
+                        .orElse(null);
+
+                if (recipe == null)
+                    CompactCrafting.LOGGER.warn("Staged craft for recipe {} was lost; the recipe no longer exists.", recipeId);
+            }
+
+            return recipe;
+        }
+
+        @Nullable
+        public MiniaturizationRecipe getRecipe() {
+            return recipe;
+        }
+
+        public int getBatch() {
+            return batch;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+
+/**
+ * Collects block changes inside active fields over a tick and hands each field all of its changes at
+ * once, so a builder placing a whole layer only marks the field changed once.
+ */
+public class FieldChangeQueue {
+
+    private static final Map<RegistryKey<World>, FieldChangeQueue> QUEUES = new HashMap<>();
+
+    /**
+     * Changed positions by field, in the order fields were first touched.
+     */
+    private final Map<IMiniaturizationField, Set<BlockPos>> pending = new LinkedHashMap<>();
+
+    public static FieldChangeQueue get(World level) {
+        return QUEUES.computeIfAbsent(level.dimension(), k -> new FieldChangeQueue());
+    }
+
+    public static void remove(World level) {
+        QUEUES.remove(level.dimension());
+    }
+
+    public static void clear() {
+        QUEUES.clear();
+    }
+
+    /**
+     * Records a changed position for every field it is inside of.
+     */
+    public void enqueue(World level, BlockPos pos) {
+        level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                .ifPresent(fields -> {
+                    Collection<IMiniaturizationField> affected = fields.getFieldsContaining(pos);
+                    if (affected.isEmpty())
+                        return;
+
+                    BlockPos changed = pos.immutable();
+                    for (IMiniaturizationField field : affected)
+                        pending.computeIfAbsent(field, k -> new HashSet<>()).add(changed);
+                });
+    }
+
+    /**
+     * Delivers everything collected since the last flush. Called once per world tick.
+     */
+    public void flush(World level) {
+        if (pending.isEmpty())
+            return;
+
+        // Fields may cause more changes while handling these; those go into the next batch
+        List<Map.Entry<IMiniaturizationField, Set<BlockPos>>> batch = new ArrayList<>(pending.entrySet());
+        pending.clear();
+
+        level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                .ifPresent(fields -> {
+                    for (Map.Entry<IMiniaturizationField, Set<BlockPos>> changes : batch) {
+                        changes.getKey().markFieldChanged(level, changes.getValue());
+                        fields.wakeField(changes.getKey());
+                    }
+                });
+    }
+}
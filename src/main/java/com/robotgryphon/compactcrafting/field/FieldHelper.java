@@ -1,12 +1,25 @@
 package com.robotgryphon.compactcrafting.field;
 
-import com.robotgryphon.compactcrafting.CompactCrafting;
-import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
-import com.robotgryphon.compactcrafting.projector.block.FieldProjectorBlock;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.util.math.SectionPos;
+import net.minecraft.village.PointOfInterestType;
 import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.gen.Heightmap;
+import net.minecraft.world.lighting.WorldLightManager;
+import net.minecraft.world.server.ServerChunkProvider;
+import net.minecraft.world.server.ServerWorld;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Provides utilities to help with projector field management.
@@ -17,27 +30,110 @@ public abstract class FieldHelper {
         if (level.isClientSide())
             return;
 
-        int maxDimensions = FieldProjectionSize.maximum().getDimensions();
-        AxisAlignedBB searchArea = new AxisAlignedBB(pos, pos).inflate(maxDimensions);
-
-        BlockPos[] nearbyProjectors = BlockPos.betweenClosedStream(searchArea)
-                .filter(possProjector -> level.getBlockState(possProjector).getBlock() instanceof FieldProjectorBlock)
-                .filter(possProjector -> FieldProjectorBlock.isActive(level.getBlockState(possProjector)))
-                .map(BlockPos::immutable)
-                .toArray(BlockPos[]::new);
-
-        CompactCrafting.LOGGER.debug("Found {} nearby projectors near {}.", nearbyProjectors.length, pos);
-
-        final Vector3d centerBlockChanged = Vector3d.atCenterOf(pos);
-        if (nearbyProjectors.length > 0) {
-            level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
-                .ifPresent(fields -> {
-                    fields.getFields()
-                            .filter(field -> field.getBounds().contains(centerBlockChanged))
-                            .forEach(f -> f.markFieldChanged(level));
-                });
+        // Active fields are indexed by chunk section, so this doesn't need to look at the world at all;
+        // the fields hear about it in one batch at the start of the next tick
+        FieldChangeQueue.get(level).enqueue(level, pos);
+    }
+
+    /**
+     * Replaces every block in an area with air by writing straight into the chunk sections. There are no
+     * neighbor updates; lighting is queued and worked out in one go at the end of the tick, and clients
+     * get one update per changed section instead of one per block.
+     *
+     * Blocks the world has more to do for still go through it: tile entities, so they're removed properly,
+     * points of interest, so villagers stop using them, and redstone sources, so their neighbors see
+     * the signal go away. See {@link #needsWorldRemoval(BlockState)}.
+     *
+     * @param level The world to clear blocks in.
+     * @param bounds The (block-aligned) area to clear.
+     * @return The cleared positions, as flat indices relative to the minimum corner; see {@link BlockSpaceUtil#getFlatIndex}.
+     */
+    public static BitSet clearBlocks(ServerWorld level, AxisAlignedBB bounds) {
+        return clearBlocks(level, bounds, state -> false);
+    }
+
+    /**
+     * Same as {@link #clearBlocks(ServerWorld, AxisAlignedBB)}, but leaves the blocks that match a filter.
+     */
+    public static BitSet clearBlocks(ServerWorld level, AxisAlignedBB bounds, Predicate<BlockState> keep) {
+        BlockState air = Blocks.AIR.defaultBlockState();
+
+        int minX = (int) Math.floor(bounds.minX), maxX = (int) Math.ceil(bounds.maxX) - 1;
+        int minY = (int) Math.floor(bounds.minY), maxY = (int) Math.ceil(bounds.maxY) - 1;
+        int minZ = (int) Math.floor(bounds.minZ), maxZ = (int) Math.ceil(bounds.maxZ) - 1;
+        int sizeX = maxX - minX + 1, sizeZ = maxZ - minZ + 1;
+
+        ServerChunkProvider chunks = level.getChunkSource();
+        WorldLightManager light = chunks.getLightEngine();
+
+        BitSet cleared = new BitSet();
+        List<BlockPos> throughWorld = new ArrayList<>();
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                Chunk chunk = level.getChunk(cx, cz);
+                ChunkSection[] sections = chunk.getSections();
+                boolean changed = false;
+
+                int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+                int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+
+                for (int sy = Math.max(0, minY >> 4); sy <= maxY >> 4 && sy < sections.length; sy++) {
+                    ChunkSection section = sections[sy];
+                    if (ChunkSection.isEmpty(section))
+                        continue;
+
+                    int y0 = Math.max(minY, sy << 4), y1 = Math.min(maxY, (sy << 4) + 15);
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+                                if (state.isAir() || keep.test(state))
+                                    continue;
+
+                                cleared.set(BlockSpaceUtil.getFlatIndex(x - minX, y - minY, z - minZ, sizeX, sizeZ));
+                                pos.set(x, y, z);
+
+                                if (needsWorldRemoval(state)) {
+                                    throughWorld.add(pos.immutable());
+                                    continue;
+                                }
+
+                                section.setBlockState(x & 15, y & 15, z & 15, air, false);
+                                for (Map.Entry<Heightmap.Type, Heightmap> heightmap : chunk.getHeightmaps())
+                                    heightmap.getValue().update(x & 15, y, z & 15, air);
+
+                                light.checkBlock(pos);
+                                chunks.blockChanged(pos);
+                                changed = true;
+                            }
+                        }
+                    }
+
+                    if (section.isEmpty())
+                        light.updateSectionStatus(SectionPos.of(cx, sy, cz), true);
+                }
+
+                if (changed)
+                    chunk.setUnsaved(true);
+            }
         }
+
+        for (BlockPos worldPos : throughWorld)
+            level.setBlock(worldPos, air, 7);
+
+        return cleared;
     }
 
+    /**
+     * Checks whether removing a block has side effects that writing air into its section would skip:
+     * the tile entity, the point of interest kept by the world, or the redstone updates from onRemove.
+     */
+    private static boolean needsWorldRemoval(BlockState state) {
+        return state.hasTileEntity()
+                || state.isSignalSource()
+                || PointOfInterestType.forState(state).isPresent();
+    }
 
-}
\ No newline at end of file
+}
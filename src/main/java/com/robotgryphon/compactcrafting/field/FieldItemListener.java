@@ -1,4 +1,193 @@
 package com.robotgryphon.compactcrafting.field;
 
+import com.robotgryphon.compactcrafting.field.capability.IActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.ItemEntity;
+import net.minecraft.item.Item;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.server.ServerWorld;
+
+import java.util.*;
+
+/**
+ * Keeps track of item entities that could be used as a catalyst, so fields don't have to query the
+ * world's entities every tick. Items are picked up as they join the world; once per tick each tracked
+ * item is looked up in the world's field index, and the fields it is inside of keep a list of it.
+ *
+ * Matched fields sleep until a catalyst comes into them (or the stack in them grows), so an item
+ * sitting in a field doesn't keep waking it. Fields that couldn't start at the time wake themselves
+ * once they can; see {@link #hasCatalyst}.
+ */
 public class FieldItemListener {
+
+    private static final Map<RegistryKey<World>, FieldItemListener> LISTENERS = new HashMap<>();
+
+    private final Map<ItemEntity, TrackedItem> tracked = new LinkedHashMap<>();
+
+    /**
+     * Tracked items by the center of each field they are in, in the order they came in.
+     */
+    private final Map<BlockPos, Set<ItemEntity>> byField = new HashMap<>();
+
+    /**
+     * Recipe index generation the tracked items were picked with; catalysts can change on reload.
+     */
+    private int generation = -1;
+
+    public static FieldItemListener get(World level) {
+        return LISTENERS.computeIfAbsent(level.dimension(), k -> new FieldItemListener());
+    }
+
+    public static void remove(World level) {
+        LISTENERS.remove(level.dimension());
+    }
+
+    public static void clear() {
+        LISTENERS.clear();
+    }
+
+    public void onItemJoined(World level, ItemEntity item) {
+        MiniaturizationRecipeIndex index = MiniaturizationRecipeIndex.get(level.getRecipeManager());
+        if (index.isCatalyst(item.getItem().getItem()))
+            tracked.putIfAbsent(item, new TrackedItem());
+    }
+
+    public void onItemLeft(ItemEntity item) {
+        TrackedItem removed = tracked.remove(item);
+        if (removed != null)
+            leaveAll(item, removed);
+    }
+
+    /**
+     * Moves the tracked items between the fields they are in, waking fields an item came into.
+     * Called once per world tick, before the fields tick.
+     */
+    public void tick(ServerWorld level, IActiveWorldFields fields) {
+        MiniaturizationRecipeIndex index = MiniaturizationRecipeIndex.get(level.getRecipeManager());
+        if (index.getGeneration() != generation)
+            resync(level, index);
+
+        Iterator<Map.Entry<ItemEntity, TrackedItem>> it = tracked.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<ItemEntity, TrackedItem> entry = it.next();
+            ItemEntity item = entry.getKey();
+            TrackedItem state = entry.getValue();
+
+            if (!item.isAlive() || !index.isCatalyst(item.getItem().getItem())) {
+                leaveAll(item, state);
+                it.remove();
+                continue;
+            }
+
+            // We grow the bounds check here a little to support patterns that are exactly the size of the field
+            Collection<IMiniaturizationField> inside = fields.getFieldsIntersecting(item.getBoundingBox().inflate(0.25));
+
+            int count = item.getItem().getCount();
+            boolean grew = count > state.count;
+            state.count = count;
+
+            if (inside.isEmpty() && state.fields.isEmpty())
+                continue;
+
+            List<BlockPos> centers = new ArrayList<>(inside.size());
+            for (IMiniaturizationField field : inside) {
+                BlockPos center = field.getCenter();
+                centers.add(center);
+
+                boolean entered = byField.computeIfAbsent(center, k -> new LinkedHashSet<>()).add(item);
+
+                // Matched fields sleep until a catalyst lands in them
+                if ((entered || grew) && field.getCurrentRecipe().isPresent())
+                    fields.wakeField(field);
+            }
+
+            for (BlockPos center : state.fields) {
+                if (!centers.contains(center))
+                    leave(item, center);
+            }
+
+            state.fields = centers;
+        }
+    }
+
+    private void leaveAll(ItemEntity item, TrackedItem state) {
+        for (BlockPos center : state.fields)
+            leave(item, center);
+    }
+
+    private void leave(ItemEntity item, BlockPos center) {
+        Set<ItemEntity> inField = byField.get(center);
+        if (inField == null)
+            return;
+
+        inField.remove(item);
+        if (inField.isEmpty())
+            byField.remove(center);
+    }
+
+    private void resync(ServerWorld level, MiniaturizationRecipeIndex index) {
+        this.generation = index.getGeneration();
+        tracked.clear();
+        byField.clear();
+
+        for (Entity entity : level.getAllEntities()) {
+            if (entity instanceof ItemEntity && entity.isAlive() && index.isCatalyst(((ItemEntity) entity).getItem().getItem()))
+                tracked.put((ItemEntity) entity, new TrackedItem());
+        }
+    }
+
+    /**
+     * Gets the catalyst items that are currently inside a field.
+     *
+     * @param field The field to check.
+     * @param catalyst The catalyst item the field's recipe needs.
+     * @return Matching item entities, in the order they came into the field.
+     */
+    public List<ItemEntity> getCatalysts(IMiniaturizationField field, Item catalyst) {
+        Set<ItemEntity> inField = byField.get(field.getCenter());
+        if (inField == null)
+            return Collections.emptyList();
+
+        List<ItemEntity> matching = new ArrayList<>();
+        for (ItemEntity item : inField) {
+            if (item.isAlive() && item.getItem().getItem() == catalyst)
+                matching.add(item);
+        }
+
+        return matching;
+    }
+
+    /**
+     * Checks whether a catalyst item is already inside a field, for fields that become able to
+     * start a craft without an item coming in.
+     */
+    public boolean hasCatalyst(IMiniaturizationField field, Item catalyst) {
+        Set<ItemEntity> inField = byField.get(field.getCenter());
+        if (inField == null)
+            return false;
+
+        for (ItemEntity item : inField) {
+            if (item.isAlive() && item.getItem().getItem() == catalyst)
+                return true;
+        }
+
+        return false;
+    }
+
+    private static final class TrackedItem {
+        /**
+         * Centers of the fields the item was in as of the last tick.
+         */
+        private List<BlockPos> fields = Collections.emptyList();
+
+        /**
+         * Stack size as of the last tick; a stack that grows may now pay for a craft.
+         */
+        private int count;
+    }
 }
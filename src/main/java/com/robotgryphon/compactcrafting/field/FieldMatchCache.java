@@ -0,0 +1,280 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import net.minecraft.block.Block;
+import net.minecraft.util.Rotation;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+
+import javax.annotation.Nullable;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.IntSupplier;
+
+/**
+ * Remembers what recipe (if any) a field's contents matched, server-wide, so a field built the same
+ * way as one before it skips matching entirely. Contents are keyed by the filled area's block state
+ * ids, turned to whichever of the four rotations sorts first, since recipes match in any of them.
+ *
+ * Entries only hold for the recipe generation they were matched against; the first lookup after a
+ * reload clears the cache. Least recently used entries are dropped past the configured size.
+ */
+public final class FieldMatchCache {
+
+    private static final FieldMatchCache INSTANCE = new FieldMatchCache(() -> ServerConfig.matchCacheSize);
+
+    private static final Rotation[] ROTATIONS = {
+            Rotation.NONE,
+            Rotation.CLOCKWISE_90,
+            Rotation.CLOCKWISE_180,
+            Rotation.COUNTERCLOCKWISE_90
+    };
+
+    private final IntSupplier maxSize;
+    private final LinkedHashMap<Key, Result> entries = new LinkedHashMap<Key, Result>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Result> eldest) {
+            if (size() <= maxSize.getAsInt())
+                return false;
+
+            evictions++;
+            return true;
+        }
+    };
+
+    private int generation = Integer.MIN_VALUE;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public FieldMatchCache(IntSupplier maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    public static FieldMatchCache get() {
+        return INSTANCE;
+    }
+
+    public boolean isEnabled() {
+        return maxSize.getAsInt() > 0;
+    }
+
+    /**
+     * Looks up a previous match for the same contents.
+     *
+     * @param key The contents; see {@link Key#of(FieldSnapshot)}.
+     * @param generation The recipe generation being matched against.
+     * @return The previous result, or null if these contents haven't been matched in this generation.
+     */
+    @Nullable
+    public synchronized Result lookup(Key key, int generation) {
+        if (!checkGeneration(generation)) {
+            misses++;
+            return null;
+        }
+
+        Result result = entries.get(key);
+        if (result == null)
+            misses++;
+        else
+            hits++;
+
+        return result;
+    }
+
+    /**
+     * Records what some contents matched.
+     *
+     * @param recipe The matched recipe, or null if nothing matched.
+     */
+    public synchronized void store(Key key, int generation, @Nullable MiniaturizationRecipe recipe) {
+        if (!isEnabled() || !checkGeneration(generation))
+            return;
+
+        entries.put(key, new Result(recipe));
+    }
+
+    /**
+     * Drops old entries if the generation moved on.
+     *
+     * @return Whether entries for this generation are usable; false for results from a generation that's already gone.
+     */
+    private boolean checkGeneration(int generation) {
+        if (generation == this.generation)
+            return true;
+
+        if (generation < this.generation)
+            return false;
+
+        entries.clear();
+        this.generation = generation;
+        return true;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        this.generation = Integer.MIN_VALUE;
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Gets the fraction of lookups that found a previous match, or 0 before the first lookup.
+     */
+    public synchronized double getHitRate() {
+        long lookups = hits + misses;
+        return lookups == 0 ? 0 : hits / (double) lookups;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    public static final class Result {
+        @Nullable
+        private final MiniaturizationRecipe recipe;
+
+        Result(@Nullable MiniaturizationRecipe recipe) {
+            this.recipe = recipe;
+        }
+
+        /**
+         * Gets the recipe the contents matched, or empty if they matched nothing.
+         */
+        public Optional<MiniaturizationRecipe> getRecipe() {
+            return Optional.ofNullable(recipe);
+        }
+    }
+
+    /**
+     * The contents of a field's filled area, in canonical rotation. Equal keys always hold equal
+     * contents; the hash only picks the bucket.
+     */
+    public static final class Key {
+        private final int sizeX, sizeY, sizeZ;
+        private final int[] cells;
+        private final int hash;
+
+        private Key(int sizeX, int sizeY, int sizeZ, int[] cells) {
+            this.sizeX = sizeX;
+            this.sizeY = sizeY;
+            this.sizeZ = sizeZ;
+            this.cells = cells;
+            this.hash = 31 * (31 * (31 * sizeX + sizeY) + sizeZ) + Arrays.hashCode(cells);
+        }
+
+        /**
+         * Builds the key for a snapshot's filled area. Only call this for snapshots that aren't empty.
+         */
+        public static Key of(FieldSnapshot snapshot) {
+            AxisAlignedBB filled = snapshot.getFilledBounds();
+            BlockPos origin = snapshot.getOrigin();
+
+            int minX = (int) filled.minX - origin.getX();
+            int minY = (int) filled.minY - origin.getY();
+            int minZ = (int) filled.minZ - origin.getZ();
+            int sizeX = (int) filled.getXsize(), sizeY = (int) filled.getYsize(), sizeZ = (int) filled.getZsize();
+
+            // Global state ids don't change while the server runs, and the cache is emptied when it stops
+            int[] cells = new int[sizeX * sizeY * sizeZ];
+            for (int y = 0; y < sizeY; y++)
+                for (int z = 0; z < sizeZ; z++)
+                    for (int x = 0; x < sizeX; x++)
+                        cells[BlockSpaceUtil.getFlatIndex(x, y, z, sizeX, sizeZ)] = Block.getId(snapshot.getState(minX + x, minY + y, minZ + z));
+
+            return of(cells, sizeX, sizeY, sizeZ);
+        }
+
+        /**
+         * Builds the key for a block of cells laid out as in {@link BlockSpaceUtil#getFlatIndex}.
+         */
+        public static Key of(int[] cells, int sizeX, int sizeY, int sizeZ) {
+            Key best = null;
+            for (Rotation rot : ROTATIONS) {
+                Key rotated = rotate(cells, sizeX, sizeY, sizeZ, rot);
+                if (best == null || rotated.compareTo(best) < 0)
+                    best = rotated;
+            }
+
+            return best;
+        }
+
+        private static Key rotate(int[] cells, int sizeX, int sizeY, int sizeZ, Rotation rot) {
+            if (rot == Rotation.NONE)
+                return new Key(sizeX, sizeY, sizeZ, cells);
+
+            // Same mapping the compiled recipes use to build their rotated templates
+            boolean swapped = rot == Rotation.CLOCKWISE_90 || rot == Rotation.COUNTERCLOCKWISE_90;
+            int rotX = swapped ? sizeZ : sizeX;
+            int rotZ = swapped ? sizeX : sizeZ;
+
+            int[] rotated = new int[cells.length];
+            for (int y = 0; y < sizeY; y++) {
+                for (int z = 0; z < rotZ; z++) {
+                    for (int x = 0; x < rotX; x++) {
+                        int srcX = BlockSpaceUtil.rotateX(x, z, rotX, rotZ, rot);
+                        int srcZ = BlockSpaceUtil.rotateZ(x, z, rotX, rotZ, rot);
+
+                        rotated[BlockSpaceUtil.getFlatIndex(x, y, z, rotX, rotZ)] =
+                                cells[BlockSpaceUtil.getFlatIndex(srcX, y, srcZ, sizeX, sizeZ)];
+                    }
+                }
+            }
+
+            return new Key(rotX, sizeY, rotZ, rotated);
+        }
+
+        private int compareTo(Key other) {
+            if (sizeX != other.sizeX)
+                return Integer.compare(sizeX, other.sizeX);
+
+            if (sizeZ != other.sizeZ)
+                return Integer.compare(sizeZ, other.sizeZ);
+
+            // Same dimensions, so the same length
+            for (int i = 0; i < cells.length; i++) {
+                if (cells[i] != other.cells[i])
+                    return Integer.compare(cells[i], other.cells[i]);
+            }
+
+            return 0;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o)
+                return true;
+
+            if (!(o instanceof Key))
+                return false;
+
+            Key other = (Key) o;
+            return hash == other.hash
+                    && sizeX == other.sizeX && sizeY == other.sizeY && sizeZ == other.sizeZ
+                    && Arrays.equals(cells, other.cells);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import com.robotgryphon.compactcrafting.projector.tile.FieldProjectorTile;
+import net.minecraft.entity.item.ItemEntity;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.Direction;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.vector.Vector3d;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.Constants;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.common.util.LazyOptional;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Routes a field's finished crafts into inventories instead of dropping them in the world. Outputs go
+ * to handlers registered on the field first, then to inventories next to the projectors. Whatever
+ * doesn't fit waits in the field's buffer and is retried every so often.
+ *
+ * Fields with no inventory around them still drop their outputs, as they always have.
+ */
+public class FieldOutputs implements INBTSerializable<CompoundNBT> {
+
+    /**
+     * Ticks between attempts to empty the buffer.
+     */
+    private static final int RETRY_INTERVAL = 20;
+
+    private final List<ItemStack> buffer = new ArrayList<>();
+    private final List<LazyOptional<IItemHandler>> registered = new ArrayList<>();
+    private long retryTime = -1;
+
+    private long insertedItems;
+    private long droppedItems;
+
+    /**
+     * Registers an inventory to receive outputs before any next to the projectors. It's dropped
+     * again when the capability is invalidated.
+     */
+    public void register(LazyOptional<IItemHandler> handler) {
+        if (!handler.isPresent() || registered.contains(handler))
+            return;
+
+        registered.add(handler);
+        handler.addListener(h -> registered.remove(h));
+    }
+
+    /**
+     * Hands a craft's outputs to the field's inventories.
+     *
+     * @param level The world the field is in.
+     * @param field The field that made the outputs.
+     * @param outputs The outputs, in full stacks.
+     */
+    public void deliver(World level, IMiniaturizationField field, List<ItemStack> outputs) {
+        boolean wasEmpty = buffer.isEmpty();
+        deliver(findTargets(level, field), outputs, stacks -> spawn(level, field.getCenter(), stacks));
+
+        if (wasEmpty && !buffer.isEmpty()) {
+            this.retryTime = level.getGameTime() + RETRY_INTERVAL;
+            level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                    .ifPresent(fields -> fields.wakeField(field));
+        }
+    }
+
+    /**
+     * Same as {@link #deliver(World, IMiniaturizationField, List)}, with the inventories found by the caller.
+     *
+     * @param targets The inventories to fill, in order.
+     * @param outputs The outputs, in full stacks.
+     * @param spawner Drops stacks in the world; used when there's nowhere else for them.
+     */
+    public void deliver(List<IItemHandler> targets, List<ItemStack> outputs, Consumer<List<ItemStack>> spawner) {
+        // Nothing to put them in; same as before there were inventories
+        if (targets.isEmpty() && ServerConfig.spawnOutputItems) {
+            drop(outputs, spawner);
+            return;
+        }
+
+        for (ItemStack output : outputs) {
+            ItemStack remaining = insert(targets, output);
+            if (!remaining.isEmpty())
+                addToBuffer(remaining, spawner);
+        }
+    }
+
+    /**
+     * Tries to move the buffered outputs into the field's inventories again.
+     */
+    public void flush(World level, IMiniaturizationField field) {
+        flush(findTargets(level, field));
+        this.retryTime = buffer.isEmpty() ? -1 : level.getGameTime() + RETRY_INTERVAL;
+    }
+
+    /**
+     * Tries to move the buffered outputs into a set of inventories.
+     */
+    public void flush(List<IItemHandler> targets) {
+        Iterator<ItemStack> it = buffer.iterator();
+        while (it.hasNext()) {
+            ItemStack stack = it.next();
+            ItemStack remaining = insert(targets, stack);
+            if (remaining.isEmpty())
+                it.remove();
+            else
+                stack.setCount(remaining.getCount());
+        }
+    }
+
+    /**
+     * Gets the game time the buffer should be retried at, or -1 if it's empty.
+     */
+    public long getRetryTime() {
+        return retryTime;
+    }
+
+    private void addToBuffer(ItemStack stack, Consumer<List<ItemStack>> spawner) {
+        for (ItemStack buffered : buffer) {
+            if (stack.isEmpty())
+                return;
+
+            if (!ItemHandlerHelper.canItemStacksStack(buffered, stack))
+                continue;
+
+            int moved = Math.min(stack.getCount(), buffered.getMaxStackSize() - buffered.getCount());
+            buffered.grow(moved);
+            stack.shrink(moved);
+        }
+
+        if (stack.isEmpty())
+            return;
+
+        // The buffer is saved with the world, so it never grows past the limit; fields stop crafting
+        // while it's full if spawning is off, and this only catches crafts that were already running
+        if (isFull()) {
+            drop(Collections.singletonList(stack), spawner);
+            return;
+        }
+
+        buffer.add(stack.copy());
+    }
+
+    private ItemStack insert(List<IItemHandler> targets, ItemStack stack) {
+        ItemStack remaining = stack.copy();
+        for (IItemHandler target : targets) {
+            remaining = ItemHandlerHelper.insertItemStacked(target, remaining, false);
+            if (remaining.isEmpty())
+                break;
+        }
+
+        this.insertedItems += stack.getCount() - remaining.getCount();
+        return remaining;
+    }
+
+    private List<IItemHandler> findTargets(World level, IMiniaturizationField field) {
+        List<IItemHandler> targets = new ArrayList<>();
+        for (LazyOptional<IItemHandler> handler : registered)
+            handler.ifPresent(targets::add);
+
+        AxisAlignedBB bounds = field.getBounds();
+        Set<BlockPos> projectors = field.getProjectorPositions().collect(Collectors.toSet());
+        for (BlockPos projector : projectors) {
+            for (Direction dir : Direction.values()) {
+                BlockPos pos = projector.relative(dir);
+                if (projectors.contains(pos) || bounds.contains(Vector3d.atCenterOf(pos)) || !level.isLoaded(pos))
+                    continue;
+
+                // Other fields' projectors hand out their virtual inventories, which don't want our outputs
+                TileEntity tile = level.getBlockEntity(pos);
+                if (tile == null || tile instanceof FieldProjectorTile)
+                    continue;
+
+                tile.getCapability(CapabilityItemHandler.ITEM_HANDLER_CAPABILITY, dir.getOpposite())
+                        .ifPresent(handler -> {
+                            if (!targets.contains(handler))
+                                targets.add(handler);
+                        });
+            }
+        }
+
+        return targets;
+    }
+
+    /**
+     * Drops items in the world at a position.
+     */
+    public static void spawn(World level, BlockPos pos, List<ItemStack> stacks) {
+        for (ItemStack stack : stacks) {
+            ItemEntity itemEntity = new ItemEntity(level, pos.getX() + 0.5f, pos.getY() + 0.5f, pos.getZ() + 0.5f, stack);
+            level.addFreshEntity(itemEntity);
+        }
+    }
+
+    private void drop(List<ItemStack> stacks, Consumer<List<ItemStack>> spawner) {
+        for (ItemStack stack : stacks)
+            this.droppedItems += stack.getCount();
+
+        spawner.accept(stacks);
+    }
+
+    /**
+     * Drops everything in the buffer, for when the field goes away.
+     */
+    public void dropBuffer(World level, BlockPos pos) {
+        dropBuffer(stacks -> spawn(level, pos, stacks));
+    }
+
+    /**
+     * Same as {@link #dropBuffer(World, BlockPos)}, with the stacks handed to the caller to drop.
+     */
+    public void dropBuffer(Consumer<List<ItemStack>> spawner) {
+        drop(new ArrayList<>(buffer), spawner);
+        buffer.clear();
+        this.retryTime = -1;
+    }
+
+    /**
+     * Checks whether the buffer is at its configured size. With spawning off, fields don't start
+     * crafts while this is true.
+     */
+    public boolean isFull() {
+        return buffer.size() >= ServerConfig.outputBufferStacks;
+    }
+
+    /**
+     * Gets the number of stacks waiting for room in an inventory.
+     */
+    public int getBufferedStacks() {
+        return buffer.size();
+    }
+
+    /**
+     * Gets the number of output items that went straight into an inventory.
+     */
+    public long getInsertedItems() {
+        return insertedItems;
+    }
+
+    /**
+     * Gets the number of output items that were dropped in the world.
+     */
+    public long getDroppedItems() {
+        return droppedItems;
+    }
+
+    @Override
+    public CompoundNBT serializeNBT() {
+        CompoundNBT nbt = new CompoundNBT();
+        ListNBT list = new ListNBT();
+        for (ItemStack stack : buffer)
+            list.add(stack.save(new CompoundNBT()));
+
+        nbt.put("buffer", list);
+        return nbt;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundNBT nbt) {
+        buffer.clear();
+        ListNBT list = nbt.getList("buffer", Constants.NBT.TAG_COMPOUND);
+        for (int i = 0; i < list.size(); i++) {
+            ItemStack stack = ItemStack.of(list.getCompound(i));
+            if (!stack.isEmpty())
+                buffer.add(stack);
+        }
+
+        // Retried on the field's first tick
+        this.retryTime = buffer.isEmpty() ? -1 : 0;
+    }
+}
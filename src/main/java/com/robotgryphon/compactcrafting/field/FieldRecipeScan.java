@@ -0,0 +1,118 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.recipes.FieldMatchState;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeDiscriminationTable;
+
+import javax.annotation.Nullable;
+import java.util.Optional;
+
+/**
+ * The matching half of a field recipe scan. Everything it needs from the world is read into a
+ * {@link FieldSnapshot} on the server thread first, so {@link #run()} is safe to call from any thread.
+ *
+ * The field only applies the result if nothing changed since the snapshot was taken; see {@link #getVersion()}.
+ */
+public class FieldRecipeScan implements Runnable {
+
+    private final long version;
+    private final FieldSnapshot snapshot;
+    private final int generation;
+
+    /**
+     * Table for the snapshot's filled area, or null if the field is empty.
+     */
+    @Nullable
+    private final RecipeDiscriminationTable table;
+
+    /**
+     * State from the last scan, if the filled area is unchanged and it can be updated in place.
+     */
+    @Nullable
+    private final FieldMatchState previousState;
+    private final long dirtyLayers;
+
+    private FieldMatchState state;
+    private MiniaturizationRecipe matched;
+    private boolean cached;
+
+    FieldRecipeScan(long version, FieldSnapshot snapshot, int generation, @Nullable RecipeDiscriminationTable table,
+                    @Nullable FieldMatchState previousState, long dirtyLayers) {
+        this.version = version;
+        this.snapshot = snapshot;
+        this.generation = generation;
+        this.table = table;
+        this.previousState = previousState;
+        this.dirtyLayers = dirtyLayers;
+    }
+
+    @Override
+    public void run() {
+        if (snapshot.isEmpty())
+            return;
+
+        FieldMatchCache cache = FieldMatchCache.get();
+        FieldMatchCache.Key key = null;
+
+        // Work on a copy; the field keeps its own state if this result ends up being thrown away
+        if (previousState != null) {
+            this.state = previousState.copy();
+            state.update(snapshot, dirtyLayers);
+        } else if (table != null && table.size() > 0) {
+            // Built the same as a field before it; no state to keep, so the next change matches from scratch
+            if (cache.isEnabled()) {
+                key = FieldMatchCache.Key.of(snapshot);
+                FieldMatchCache.Result result = cache.lookup(key, generation);
+                if (result != null) {
+                    this.matched = result.getRecipe().orElse(null);
+                    this.cached = true;
+                    return;
+                }
+            }
+
+            this.state = new FieldMatchState(table, snapshot);
+        } else {
+            return;
+        }
+
+        this.matched = state.findMatch(snapshot).orElse(null);
+
+        // Updating the last scan in place is cheap already; only remember the result for others
+        if (cache.isEnabled())
+            cache.store(key != null ? key : FieldMatchCache.Key.of(snapshot), generation, matched);
+    }
+
+    /**
+     * The field change version this scan was started at.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public FieldSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    public int getGeneration() {
+        return generation;
+    }
+
+    /**
+     * The per-layer match results, or null if there was nothing to match against.
+     */
+    @Nullable
+    public FieldMatchState getState() {
+        return state;
+    }
+
+    /**
+     * Whether the result came from the match cache instead of matching.
+     */
+    public boolean isCached() {
+        return cached;
+    }
+
+    public Optional<MiniaturizationRecipe> getMatchedRecipe() {
+        return Optional.ofNullable(matched);
+    }
+}
@@ -0,0 +1,65 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.ServerConfig;
+
+import javax.annotation.Nullable;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Small, bounded pool that field recipe scans are matched on. Created on first use and shut down
+ * with the server.
+ */
+public final class FieldScanExecutor {
+
+    /**
+     * Scans waiting for a thread. Past this, scans are run on the calling thread instead of piling up.
+     */
+    private static final int MAX_QUEUED = 128;
+
+    private static ThreadPoolExecutor executor;
+
+    private FieldScanExecutor() {
+    }
+
+    /**
+     * Queues a scan to run in the background.
+     *
+     * @param scan The scan to run.
+     * @return The queued task, or null if the pool is full and the caller should run the scan itself.
+     */
+    @Nullable
+    public static synchronized Future<?> submit(Runnable scan) {
+        if (executor == null)
+            executor = create(ServerConfig.recipeScanThreads);
+
+        try {
+            return executor.submit(scan);
+        } catch (RejectedExecutionException e) {
+            return null;
+        }
+    }
+
+    public static synchronized void shutdown() {
+        if (executor == null)
+            return;
+
+        executor.shutdownNow();
+        executor = null;
+    }
+
+    private static ThreadPoolExecutor create(int threads) {
+        CompactCrafting.LOGGER.debug("Starting {} recipe scan threads.", threads);
+
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory factory = r -> {
+            Thread thread = new Thread(r, "CompactCrafting Recipe Scan #" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+
+        return new ThreadPoolExecutor(threads, threads, 30, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(MAX_QUEUED), factory, new ThreadPoolExecutor.AbortPolicy());
+    }
+}
@@ -0,0 +1,200 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.field.capability.IActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import net.minecraft.util.RegistryKey;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+/**
+ * Spreads recipe scans over ticks. Fields ask for a scan when their rescan delay runs out; once per
+ * world tick the queue starts as many as fit in the configured time budget and leaves the rest for
+ * the next tick, so a server start or a finished build doesn't scan every field in one tick.
+ *
+ * Scans are started in request order, except that fields with a player nearby go first. Fields that
+ * have waited too long count as nearby, so nothing waits forever.
+ */
+public class FieldScanQueue {
+
+    private static final Map<RegistryKey<World>, FieldScanQueue> QUEUES = new HashMap<>();
+
+    /**
+     * Ticks a field can wait before it's treated the same as one with a player next to it.
+     */
+    public static final int MAX_WAIT = 100;
+
+    /**
+     * Queued fields and the game time they asked for a scan, in request order.
+     */
+    private final Map<IMiniaturizationField, Long> queued = new LinkedHashMap<>();
+
+    private long scanCount;
+    private long totalWait;
+    private long maxWait;
+    private int lastTickScans;
+    private long lastTickNanos;
+
+    public static FieldScanQueue get(World level) {
+        return QUEUES.computeIfAbsent(level.dimension(), k -> new FieldScanQueue());
+    }
+
+    public static void remove(World level) {
+        QUEUES.remove(level.dimension());
+    }
+
+    public static void clear() {
+        QUEUES.clear();
+    }
+
+    /**
+     * Queues a scan for a field. A field that is already queued keeps its place.
+     */
+    public void request(IMiniaturizationField field, long gameTime) {
+        queued.putIfAbsent(field, gameTime);
+    }
+
+    /**
+     * Starts queued scans until the tick's budget is used up. Called once per world tick, after the fields tick.
+     */
+    public void tick(World level, IActiveWorldFields fields) {
+        if (queued.isEmpty()) {
+            this.lastTickScans = 0;
+            this.lastTickNanos = 0;
+            return;
+        }
+
+        long gameTime = level.getGameTime();
+        tick(gameTime, ServerConfig.recipeScanBudget, fields, field -> isNearPlayer(level, field), field -> {
+            if (ServerConfig.asyncRecipeScans)
+                field.startRecipeScan(level);
+            else
+                field.doRecipeScan(level);
+        });
+
+        if (!queued.isEmpty()) {
+            CompactCrafting.LOGGER.debug("Recipe scan budget used up in {} after {} scans; {} fields still queued (oldest waiting {} ticks).",
+                    level.dimension().location(), lastTickScans, queued.size(), getOldestWait(gameTime));
+        }
+    }
+
+    /**
+     * Same as {@link #tick(World, IActiveWorldFields)}, with the world left to the caller.
+     *
+     * @param gameTime The current game time.
+     * @param budgetNanos How long to spend starting scans; at least one is always started.
+     * @param nearPlayer Whether a field has a player close enough to go first.
+     * @param scan Starts the scan for a single field.
+     * @return The number of scans started.
+     */
+    public int tick(long gameTime, long budgetNanos, IActiveWorldFields fields,
+                    Predicate<IMiniaturizationField> nearPlayer, Consumer<IMiniaturizationField> scan) {
+        this.lastTickScans = 0;
+        this.lastTickNanos = 0;
+        if (queued.isEmpty())
+            return 0;
+
+        long start = System.nanoTime();
+        long deadline = start + budgetNanos;
+
+        // Nearby (or long-waiting) fields first, then everyone else, both in request order
+        drain(fields, gameTime, deadline, true, nearPlayer, scan);
+        if (!queued.isEmpty())
+            drain(fields, gameTime, deadline, false, nearPlayer, scan);
+
+        this.lastTickNanos = System.nanoTime() - start;
+        return lastTickScans;
+    }
+
+    private void drain(IActiveWorldFields fields, long gameTime, long deadline, boolean priorityOnly,
+                       Predicate<IMiniaturizationField> nearPlayer, Consumer<IMiniaturizationField> scan) {
+        Iterator<Map.Entry<IMiniaturizationField, Long>> it = queued.entrySet().iterator();
+        while (it.hasNext()) {
+            // Always make some progress, even if a single scan is over budget
+            if (lastTickScans > 0 && System.nanoTime() >= deadline)
+                return;
+
+            Map.Entry<IMiniaturizationField, Long> entry = it.next();
+            IMiniaturizationField field = entry.getKey();
+            long wait = gameTime - entry.getValue();
+
+            if (priorityOnly && wait < MAX_WAIT && !nearPlayer.test(field))
+                continue;
+
+            it.remove();
+
+            // Removed while it was waiting
+            if (fields.get(field.getCenter()).orElse(null) != field)
+                continue;
+
+            scan.accept(field);
+
+            // Background scans commit a fixed number of ticks later
+            fields.wakeField(field);
+
+            this.lastTickScans++;
+            this.scanCount++;
+            this.totalWait += wait;
+            this.maxWait = Math.max(maxWait, wait);
+        }
+    }
+
+    private static boolean isNearPlayer(World level, IMiniaturizationField field) {
+        int range = ServerConfig.recipeScanPriorityRange;
+        if (range <= 0)
+            return false;
+
+        BlockPos center = field.getCenter();
+        return level.hasNearbyAlivePlayer(center.getX() + 0.5, center.getY() + 0.5, center.getZ() + 0.5, range);
+    }
+
+    private long getOldestWait(long gameTime) {
+        // Request order, so the first entry is the oldest
+        Iterator<Long> it = queued.values().iterator();
+        return it.hasNext() ? gameTime - it.next() : 0;
+    }
+
+    /**
+     * Gets the number of fields waiting for a scan.
+     */
+    public int getDepth() {
+        return queued.size();
+    }
+
+    /**
+     * Gets the total number of scans this queue has started.
+     */
+    public long getScanCount() {
+        return scanCount;
+    }
+
+    /**
+     * Gets the average number of ticks a field waited between asking for a scan and getting one.
+     */
+    public double getAverageWait() {
+        return scanCount == 0 ? 0 : totalWait / (double) scanCount;
+    }
+
+    /**
+     * Gets the longest any field has waited for a scan, in ticks.
+     */
+    public long getMaxWait() {
+        return maxWait;
+    }
+
+    public int getLastTickScans() {
+        return lastTickScans;
+    }
+
+    /**
+     * Gets how long the last tick spent starting scans, in nanoseconds.
+     */
+    public long getLastTickNanos() {
+        return lastTickNanos;
+    }
+}
@@ -0,0 +1,325 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.field.block.FieldCraftingPreviewBlock;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.fluid.FluidState;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+import net.minecraft.world.IWorldReader;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.ChunkStatus;
+import net.minecraft.world.chunk.IChunk;
+
+import javax.annotation.Nullable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * An immutable copy of the blocks inside a miniaturization field, taken once per recipe scan.
+ * The field is read section by section straight out of the chunks, and everything that needs
+ * to look at the field contents afterwards (filled bounds, recipe matching, layer checks) reads
+ * from here instead of going back to the world.
+ *
+ * Positions outside of the field read as air.
+ */
+public final class FieldSnapshot implements IBlockReader {
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final FieldProjectionSize fieldSize;
+
+    /**
+     * Minimum corner of the field, in world coordinates.
+     */
+    private final BlockPos origin;
+    private final int size;
+
+    /**
+     * Flat copy of the field; see {@link BlockSpaceUtil#getFlatIndex}.
+     */
+    private final BlockState[] states;
+
+    private final AxisAlignedBB filledBounds;
+    private final int filledCount;
+
+    /**
+     * Block counts for the filled bounds. Only the count prefilter in recipe matching reads them,
+     * so they're built the first time they're asked for rather than with every snapshot.
+     */
+    @Nullable
+    private volatile Counts counts;
+
+    private FieldSnapshot(FieldProjectionSize fieldSize, BlockPos origin, int size, BlockState[] states) {
+        this.fieldSize = fieldSize;
+        this.origin = origin;
+        this.size = size;
+        this.states = states;
+
+        int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+        int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+        int filled = 0;
+
+        int i = 0;
+        for (int y = 0; y < size; y++) {
+            for (int z = 0; z < size; z++) {
+                for (int x = 0; x < size; x++) {
+                    if (states[i++].isAir())
+                        continue;
+
+                    filled++;
+                    minX = Math.min(minX, x);
+                    minY = Math.min(minY, y);
+                    minZ = Math.min(minZ, z);
+                    maxX = Math.max(maxX, x);
+                    maxY = Math.max(maxY, y);
+                    maxZ = Math.max(maxZ, z);
+                }
+            }
+        }
+
+        this.filledCount = filled;
+
+        // Same shape as BlockSpaceUtil#getBoundsForBlocks, including the empty case
+        if (filled == 0) {
+            this.filledBounds = AxisAlignedBB.ofSize(0, 0, 0);
+            this.counts = new Counts(Collections.emptyMap(), new int[0]);
+            return;
+        }
+
+        this.filledBounds = new AxisAlignedBB(
+                origin.getX() + minX, origin.getY() + minY, origin.getZ() + minZ,
+                origin.getX() + maxX + 1, origin.getY() + maxY + 1, origin.getZ() + maxZ + 1);
+    }
+
+    /**
+     * Gets the block counts, counting them on first use. Scans may read the same snapshot from
+     * more than one thread; at worst each counts it once, and they all get the same numbers.
+     */
+    private Counts getCounts() {
+        Counts current = counts;
+        if (current != null)
+            return current;
+
+        int minX = (int) filledBounds.minX - origin.getX(), maxX = (int) filledBounds.maxX - origin.getX() - 1;
+        int minY = (int) filledBounds.minY - origin.getY(), maxY = (int) filledBounds.maxY - origin.getY() - 1;
+        int minZ = (int) filledBounds.minZ - origin.getZ(), maxZ = (int) filledBounds.maxZ - origin.getZ() - 1;
+
+        // Second pass over just the filled area, so recipes can be ruled out by block counts alone
+        Map<BlockState, Integer> stateCounts = new IdentityHashMap<>();
+        int[] layerCounts = new int[maxY - minY + 1];
+        for (int y = minY; y <= maxY; y++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int x = minX; x <= maxX; x++) {
+                    BlockState state = states[BlockSpaceUtil.getFlatIndex(x, y, z, size, size)];
+                    stateCounts.merge(state, 1, Integer::sum);
+
+                    if (!state.isAir())
+                        layerCounts[y - minY]++;
+                }
+            }
+        }
+
+        current = new Counts(Collections.unmodifiableMap(stateCounts), layerCounts);
+        this.counts = current;
+        return current;
+    }
+
+    /**
+     * Copies the contents of a field out of the world.
+     *
+     * @param level The world the field is in.
+     * @param field The field to copy.
+     * @return A snapshot of the field's current contents.
+     */
+    public static FieldSnapshot capture(IWorldReader level, IMiniaturizationField field) {
+        FieldProjectionSize fieldSize = field.getFieldSize();
+        AxisAlignedBB bounds = field.getBounds();
+
+        BlockPos origin = new BlockPos(bounds.minX, bounds.minY, bounds.minZ);
+        int size = fieldSize.getDimensions();
+
+        BlockState[] states = new BlockState[size * size * size];
+
+        int minX = origin.getX(), minY = origin.getY(), minZ = origin.getZ();
+        int maxX = minX + size - 1, maxY = minY + size - 1, maxZ = minZ + size - 1;
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        for (int cx = minX >> 4; cx <= maxX >> 4; cx++) {
+            for (int cz = minZ >> 4; cz <= maxZ >> 4; cz++) {
+                IChunk chunk = level.getChunk(cx, cz, ChunkStatus.FULL, false);
+                ChunkSection[] sections = chunk == null ? null : chunk.getSections();
+
+                int x0 = Math.max(minX, cx << 4), x1 = Math.min(maxX, (cx << 4) + 15);
+                int z0 = Math.max(minZ, cz << 4), z1 = Math.min(maxZ, (cz << 4) + 15);
+
+                for (int sy = minY >> 4; sy <= maxY >> 4; sy++) {
+                    int y0 = Math.max(minY, sy << 4), y1 = Math.min(maxY, (sy << 4) + 15);
+
+                    ChunkSection section = null;
+                    if (sections != null && sy >= 0 && sy < sections.length)
+                        section = sections[sy];
+
+                    // Whole section is air (or outside the world); skip the palette entirely
+                    boolean empty = sections != null && ChunkSection.isEmpty(section);
+
+                    for (int y = y0; y <= y1; y++) {
+                        for (int z = z0; z <= z1; z++) {
+                            for (int x = x0; x <= x1; x++) {
+                                BlockState state;
+                                if (empty)
+                                    state = AIR;
+                                else if (section != null)
+                                    state = section.getBlockState(x & 15, y & 15, z & 15);
+                                else
+                                    state = level.getBlockState(pos.set(x, y, z));
+
+                                states[BlockSpaceUtil.getFlatIndex(x - minX, y - minY, z - minZ, size, size)] = withoutCraft(state);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+
+        return new FieldSnapshot(fieldSize, origin.immutable(), size, states);
+    }
+
+    /**
+     * A craft in progress sits at the center of the field while the next layout is built around it;
+     * it isn't part of that layout.
+     */
+    private static BlockState withoutCraft(BlockState state) {
+        return state.getBlock() instanceof FieldCraftingPreviewBlock ? AIR : state;
+    }
+
+    /**
+     * Makes a new snapshot with a handful of positions read again from the world. Everything else
+     * is carried over from this snapshot.
+     *
+     * @param level The world the field is in.
+     * @param changed The positions that changed (world coordinates). Positions outside the field are ignored.
+     * @return The updated snapshot.
+     */
+    public FieldSnapshot withChanges(IWorldReader level, Collection<BlockPos> changed) {
+        BlockState[] updated = states.clone();
+        for (BlockPos pos : changed) {
+            int x = pos.getX() - origin.getX();
+            int y = pos.getY() - origin.getY();
+            int z = pos.getZ() - origin.getZ();
+            if (x < 0 || y < 0 || z < 0 || x >= size || y >= size || z >= size)
+                continue;
+
+            updated[BlockSpaceUtil.getFlatIndex(x, y, z, size, size)] = withoutCraft(level.getBlockState(pos));
+        }
+
+        return new FieldSnapshot(fieldSize, origin, size, updated);
+    }
+
+    public FieldProjectionSize getFieldSize() {
+        return fieldSize;
+    }
+
+    public BlockPos getOrigin() {
+        return origin;
+    }
+
+    /**
+     * Gets the size of the field on each axis.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the bounds of all the non-air blocks in the field, in world coordinates.
+     */
+    public AxisAlignedBB getFilledBounds() {
+        return filledBounds;
+    }
+
+    public int getFilledCount() {
+        return filledCount;
+    }
+
+    public boolean isEmpty() {
+        return filledCount == 0;
+    }
+
+    /**
+     * Gets how many times each block state appears inside the filled bounds (air included).
+     */
+    public Map<BlockState, Integer> getStateCounts() {
+        return getCounts().stateCounts;
+    }
+
+    /**
+     * Gets the number of layers in the filled bounds.
+     */
+    public int getFilledLayers() {
+        return getCounts().layerFilledCounts.length;
+    }
+
+    /**
+     * Gets the number of non-air blocks in a layer of the filled bounds.
+     *
+     * @param layerOffset Y offset from the bottom of the filled bounds.
+     */
+    public int getFilledCount(int layerOffset) {
+        int[] layerFilledCounts = getCounts().layerFilledCounts;
+        if (layerOffset < 0 || layerOffset >= layerFilledCounts.length)
+            return 0;
+
+        return layerFilledCounts[layerOffset];
+    }
+
+    /**
+     * Gets a state by its position relative to the field origin.
+     */
+    public BlockState getState(int x, int y, int z) {
+        if (x < 0 || y < 0 || z < 0 || x >= size || y >= size || z >= size)
+            return AIR;
+
+        return states[BlockSpaceUtil.getFlatIndex(x, y, z, size, size)];
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+        return getState(pos.getX() - origin.getX(), pos.getY() - origin.getY(), pos.getZ() - origin.getZ());
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+        return getBlockState(pos).getFluidState();
+    }
+
+    @Nullable
+    @Override
+    public TileEntity getBlockEntity(BlockPos pos) {
+        // Snapshots only hold states
+        return null;
+    }
+
+    private static final class Counts {
+        /**
+         * Number of each state inside the filled bounds, air included.
+         */
+        private final Map<BlockState, Integer> stateCounts;
+
+        /**
+         * Number of non-air blocks in each layer of the filled bounds, bottom up.
+         */
+        private final int[] layerFilledCounts;
+
+        private Counts(Map<BlockState, Integer> stateCounts, int[] layerFilledCounts) {
+            this.stateCounts = stateCounts;
+            this.layerFilledCounts = layerFilledCounts;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.field.capability.IActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import net.minecraft.world.World;
+
+/**
+ * Sums up the craft queue, output, scan queue and match cache counters for a world and writes them
+ * to the debug log now and then, so server owners can see how their fields are doing.
+ */
+public class FieldStats {
+
+    /**
+     * How often (in ticks) the stats are logged; once a minute.
+     */
+    public static final int LOG_INTERVAL = 1200;
+
+    private long fields;
+    private long stagedCrafts;
+    private long stagedCount;
+    private long completedCrafts;
+    private long completedCopies;
+    private long backToBackStarts;
+    private double totalInterval;
+    private long intervals;
+    private long bufferedStacks;
+    private long insertedItems;
+    private long droppedItems;
+
+    /**
+     * Logs the stats for a world if debug logging is on and it's time to. Called once per world tick.
+     */
+    public static void tick(World level, IActiveWorldFields fields) {
+        if (level.getGameTime() % LOG_INTERVAL != 0 || !CompactCrafting.LOGGER.isDebugEnabled())
+            return;
+
+        FieldStats stats = new FieldStats();
+        fields.getFields().forEach(stats::add);
+        stats.log(level);
+    }
+
+    private void add(IMiniaturizationField field) {
+        this.fields++;
+
+        field.getCraftQueue().ifPresent(queue -> {
+            this.stagedCrafts += queue.size();
+            this.stagedCount += queue.getStagedCount();
+            this.completedCrafts += queue.getCompletedCrafts();
+            this.completedCopies += queue.getCompletedCopies();
+            this.backToBackStarts += queue.getBackToBackStarts();
+
+            // Weighted by how many intervals each field has seen
+            long seen = Math.max(0, queue.getCompletedCrafts() - 1);
+            this.totalInterval += queue.getAverageInterval() * seen;
+            this.intervals += seen;
+        });
+
+        field.getFieldOutputs().ifPresent(outputs -> {
+            this.bufferedStacks += outputs.getBufferedStacks();
+            this.insertedItems += outputs.getInsertedItems();
+            this.droppedItems += outputs.getDroppedItems();
+        });
+    }
+
+    private void log(World level) {
+        String dimension = level.dimension().location().toString();
+
+        CompactCrafting.LOGGER.debug("Field stats for {}: {} fields; {} crafts staged now, {} staged in total; {} crafts finished ({} copies), {} started back to back, {} ticks apart on average.",
+                dimension, fields, stagedCrafts, stagedCount, completedCrafts, completedCopies, backToBackStarts,
+                String.format("%.1f", intervals == 0 ? 0 : totalInterval / intervals));
+
+        CompactCrafting.LOGGER.debug("Field outputs for {}: {} stacks buffered, {} items inserted, {} items dropped.",
+                dimension, bufferedStacks, insertedItems, droppedItems);
+
+        FieldScanQueue scans = FieldScanQueue.get(level);
+        CompactCrafting.LOGGER.debug("Recipe scans for {}: {} queued, {} started, {} ticks average wait ({} at most); last tick started {} in {} us.",
+                dimension, scans.getDepth(), scans.getScanCount(), String.format("%.1f", scans.getAverageWait()),
+                scans.getMaxWait(), scans.getLastTickScans(), scans.getLastTickNanos() / 1000);
+
+        // Shared by every world, so it's only logged with the overworld
+        if (level.dimension() != World.OVERWORLD)
+            return;
+
+        FieldMatchCache cache = FieldMatchCache.get();
+        CompactCrafting.LOGGER.debug("Recipe match cache: {} layouts, {} hits, {} misses ({}% hit rate), {} evictions.",
+                cache.size(), cache.getHits(), cache.getMisses(), String.format("%.1f", cache.getHitRate() * 100), cache.getEvictions());
+    }
+}
@@ -2,42 +2,94 @@ package com.robotgryphon.compactcrafting.field;
 
 import com.robotgryphon.compactcrafting.CompactCrafting;
 import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.ServerConfig;
 import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
 import com.robotgryphon.compactcrafting.crafting.EnumCraftingState;
+import com.robotgryphon.compactcrafting.field.block.FieldCraftingPreviewBlock;
+import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
 import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
 import com.robotgryphon.compactcrafting.field.tile.FieldCraftingPreviewTile;
-import com.robotgryphon.compactcrafting.projector.block.FieldProjectorBlock;
+import com.robotgryphon.compactcrafting.network.FieldCollapsePacket;
+import com.robotgryphon.compactcrafting.network.NetworkHandler;
+import com.robotgryphon.compactcrafting.recipes.FieldMatchState;
 import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
-import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeDiscriminationTable;
+import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.item.ItemEntity;
-import net.minecraft.item.Item;
-import net.minecraft.particles.ParticleTypes;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.util.math.vector.Vector3i;
 import net.minecraft.world.IWorld;
 import net.minecraft.world.IWorldReader;
 import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
+import net.minecraftforge.fml.network.PacketDistributor;
 
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.stream.Stream;
 
 public class MiniaturizationField implements IMiniaturizationField {
 
     private FieldProjectionSize size;
     private BlockPos center;
-    private boolean loaded;
+
+    /**
+     * Chunks the field and its projectors sit in (see {@link ChunkPos#asLong}) and which of them are
+     * loaded, one bit each. Kept up to date from chunk events, so the field never has to ask the world.
+     */
+    private long[] requiredChunks;
+    private int loadedChunks;
 
     private MiniaturizationRecipe currentRecipe = null;
+
+    /**
+     * Recipe index generation the current recipe was matched against.
+     */
+    private int recipeGeneration;
     private EnumCraftingState craftingState;
     private long rescanTime;
 
+    /**
+     * Positions changed since the last scan. If nothing else invalidated the last scan, only these
+     * are read again and only the layers they are on are re-matched.
+     */
+    private final Set<BlockPos> dirtyPositions = new HashSet<>();
+    private boolean fullRescan = true;
+
+    private FieldSnapshot lastSnapshot;
+    private FieldMatchState matchState;
+    private int matchStateGeneration;
+
+    /**
+     * Bumped on every change to the field, so background scan results that were read before a
+     * change can be recognized and thrown away.
+     */
+    private long changeVersion;
+
+    /**
+     * Inventory-backed crafting, for automation that doesn't want to build recipes in the world.
+     * Created the first time something asks for it.
+     */
+    private VirtualField virtual;
+
+    private final CraftQueue craftQueue = new CraftQueue();
+    private final FieldOutputs outputs = new FieldOutputs();
+
+    /**
+     * Number of copies the running craft makes.
+     */
+    private int craftingBatch;
+
+    private FieldRecipeScan pendingScan;
+    private Future<?> pendingScanTask;
+    private long pendingScanCommitTime;
+
     public MiniaturizationField() {
     }
 
@@ -62,11 +114,19 @@ public class MiniaturizationField implements IMiniaturizationField {
     @Override
     public void setCenter(BlockPos center) {
         this.center = center;
+        this.requiredChunks = null;
+        this.loadedChunks = 0;
     }
 
     @Override
     public void setSize(FieldProjectionSize size) {
+        // Anything piped in stays; recipes that no longer fit just won't start
+        if (virtual != null && size != this.size)
+            this.virtual = virtual.resize(size);
+
         this.size = size;
+        this.requiredChunks = null;
+        this.loadedChunks = 0;
     }
 
     @Override
@@ -85,23 +145,38 @@ public class MiniaturizationField implements IMiniaturizationField {
     }
 
     public AxisAlignedBB getFilledBounds(IWorldReader level) {
-        BlockPos[] filled = getFilledBlocks(level).toArray(BlockPos[]::new);
-        return BlockSpaceUtil.getBoundsForBlocks(filled);
+        return FieldSnapshot.capture(level, this).getFilledBounds();
     }
 
+    /**
+     * Clears the field's blocks, except for a craft in progress at the center.
+     */
     public void clearBlocks(IWorld world) {
+        // Block changes from here don't go through the placement events
+        this.fullRescan = true;
+        this.changeVersion++;
+
+        if (world instanceof ServerWorld) {
+            ServerWorld level = (ServerWorld) world;
+            AxisAlignedBB bounds = getBounds();
+            int dims = size.getDimensions();
+
+            BitSet cleared = FieldHelper.clearBlocks(level, bounds, MiniaturizationField::isCraftPreview);
+
+            // One packet for the effects; the client spawns the particles for each cleared block
+            BlockPos origin = new BlockPos(bounds.minX, bounds.minY, bounds.minZ);
+            NetworkHandler.MAIN_CHANNEL.send(
+                    PacketDistributor.TRACKING_CHUNK.with(() -> level.getChunkAt(center)),
+                    new FieldCollapsePacket(origin, dims, dims, dims, cleared));
+
+            return;
+        }
+
         // Remove blocks from the world
         getFilledBlocks(world)
+                .filter(p -> !isCraftPreview(world.getBlockState(p)))
                 .sorted(Comparator.comparingInt(Vector3i::getY).reversed())
-                .forEach(blockPos -> {
-                    world.setBlock(blockPos, Blocks.AIR.defaultBlockState(), 7);
-
-                    if (world instanceof ServerWorld) {
-                        ((ServerWorld) world).sendParticles(ParticleTypes.LARGE_SMOKE,
-                                blockPos.getX() + 0.5f, blockPos.getY() + 0.5f, blockPos.getZ() + 0.5f,
-                                1, 0d, 0.05D, 0D, 0.25d);
-                    }
-                });
+                .forEach(blockPos -> world.setBlock(blockPos, Blocks.AIR.defaultBlockState(), 7));
     }
 
     public Optional<MiniaturizationRecipe> getCurrentRecipe() {
@@ -113,10 +188,56 @@ public class MiniaturizationField implements IMiniaturizationField {
         this.currentRecipe = null;
     }
 
+    private static boolean isCraftPreview(BlockState state) {
+        return state.getBlock() instanceof FieldCraftingPreviewBlock;
+    }
+
     @Override
     public void completeCraft() {
-        this.currentRecipe = null;
-        this.craftingState = EnumCraftingState.NOT_MATCHED;
+        // The layout is matched separately from the craft; whatever was built meanwhile still counts
+        this.craftingBatch = 0;
+        this.craftingState = currentRecipe != null ? EnumCraftingState.MATCHED : EnumCraftingState.NOT_MATCHED;
+    }
+
+    @Override
+    public Optional<CraftQueue.StagedCraft> completeCraft(World level) {
+        int batch = Math.max(1, craftingBatch);
+        completeCraft();
+
+        Optional<CraftQueue.StagedCraft> next = craftQueue.next(level.getRecipeManager(), level.getGameTime(), batch);
+        if (next.isPresent()) {
+            this.craftingState = EnumCraftingState.CRAFTING;
+            this.craftingBatch = next.get().getBatch();
+        }
+
+        // A matched layout may have been waiting on the running craft (or a full queue) with its catalyst in place
+        wakeForCatalyst(level);
+        return next;
+    }
+
+    /**
+     * Wakes the field if its recipe's catalyst is already inside it. Items only wake a field as
+     * they come in, so this covers a field that couldn't start at the time and now can.
+     */
+    private void wakeForCatalyst(World level) {
+        if (currentRecipe == null || level.isClientSide())
+            return;
+
+        if (!FieldItemListener.get(level).hasCatalyst(this, currentRecipe.getCatalyst().getItem()))
+            return;
+
+        level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                .ifPresent(fields -> fields.wakeField(this));
+    }
+
+    @Override
+    public Optional<CraftQueue> getCraftQueue() {
+        return Optional.of(craftQueue);
+    }
+
+    @Override
+    public Optional<FieldOutputs> getFieldOutputs() {
+        return Optional.of(outputs);
     }
 
     @Override
@@ -126,20 +247,75 @@ public class MiniaturizationField implements IMiniaturizationField {
 
     @Override
     public void tick(World level) {
-        // Set in a block update handler to mark that the field has changed
+        if (virtual != null)
+            virtual.tick(level);
+
+        long retry = outputs.getRetryTime();
+        if (retry >= 0 && level.getGameTime() >= retry)
+            outputs.flush(level, this);
+
+        if (pendingScan != null) {
+            if (level.getGameTime() >= pendingScanCommitTime)
+                finishPendingScan(level);
+
+            return;
+        }
+
+        // Set in a block update handler to mark that the field has changed; the world's scan queue
+        // decides when the scan actually runs
         if(rescanTime > 0 && level.getGameTime() >= rescanTime) {
-            doRecipeScan(level);
             this.rescanTime = 0;
+            FieldScanQueue.get(level).request(this, level.getGameTime());
             return;
         }
 
-        if(getProjectorPositions().allMatch(level::isLoaded))
-            tickCrafting(level);
+        // Recipes were reloaded since we matched; let go of the old recipe and look again
+        if (currentRecipe != null && MiniaturizationRecipeIndex.isStale(recipeGeneration)) {
+            markFieldChanged(level);
+            return;
+        }
+
+        // Only loaded fields are ticked, projectors included
+        tickCrafting(level);
     }
 
-    public void tickCrafting(World level) {
-        AxisAlignedBB fieldBounds = getBounds();
+    @Override
+    public long getNextTickTime(long gameTime) {
+        long next = getNextWorldTickTime();
+        next = earliest(next, virtual == null ? -1 : virtual.getNextTickTime());
+        return earliest(next, outputs.getRetryTime());
+    }
+
+    /**
+     * Gets the earlier of two tick times, where -1 means never.
+     */
+    private static long earliest(long a, long b) {
+        if (a < 0)
+            return b;
+
+        return b < 0 ? a : Math.min(a, b);
+    }
+
+    private long getNextWorldTickTime() {
+        if (pendingScan != null)
+            return pendingScanCommitTime;
+
+        if (rescanTime > 0)
+            return rescanTime;
+
+        // Idle, or matched and waiting on a catalyst; the item listener wakes us when one comes in
+        return -1;
+    }
+
+    @Override
+    public Optional<VirtualField> getVirtualField() {
+        if (virtual == null && size != null)
+            this.virtual = new VirtualField(size);
+
+        return Optional.ofNullable(virtual);
+    }
 
+    public void tickCrafting(World level) {
         // Get out, client worlds
         if (level == null || level.isClientSide())
             return;
@@ -147,93 +323,211 @@ public class MiniaturizationField implements IMiniaturizationField {
         if(this.currentRecipe == null)
             return;
 
-        // We grow the bounds check here a little to support patterns that are exactly the size of the field
-        List<ItemEntity> catalystEntities = getCatalystsInField(level, fieldBounds.inflate(0.25), currentRecipe.getCatalyst().getItem());
-        if (catalystEntities.size() > 0) {
-            // We dropped a catalyst item in
-            // At this point, we had a valid recipe and a valid catalyst entity
-            // Start crafting
-            switch (craftingState) {
-                case MATCHED:
-                    this.craftingState = EnumCraftingState.CRAFTING;
+        // Catalyst items are tracked as they move around, so there's no need to query the world here
+        List<ItemEntity> catalystEntities = FieldItemListener.get(level).getCatalysts(this, currentRecipe.getCatalyst().getItem());
+        if (catalystEntities.isEmpty())
+            return;
+
+        // Every catalyst stack in the field pays towards the batch, not just the first one thrown in
+        int catalystCount = 0;
+        for (ItemEntity catalyst : catalystEntities)
+            catalystCount += catalyst.getItem().getCount();
+
+        int maxBatch = CraftingHelper.getMaxBatch(currentRecipe, catalystCount);
+        if (maxBatch < 1)
+            return;
+
+        // Nowhere to put the outputs and they can't be dropped; wait for the buffer to empty (it's retried
+        // on a timer, which ticks us again)
+        if (!ServerConfig.spawnOutputItems && outputs.isFull())
+            return;
+
+        // With a craft running, this one is staged behind it if there's room; otherwise it waits
+        BlockPos centerField = getCenter();
+        boolean running = isCraftPreview(level.getBlockState(centerField));
+        if (running && craftQueue.isFull())
+            return;
+
+        // The craft was removed from the world without finishing (or never came back after a reload)
+        if (!running && craftingState == EnumCraftingState.CRAFTING)
+            this.craftingState = EnumCraftingState.MATCHED;
 
-                    // We know the "recipe" in the field is an exact match already, so wipe the field
-                    clearBlocks(level);
+        // Incremental scans only see changes we were told about; make sure before using up the blocks
+        if (!currentRecipe.matches(FieldSnapshot.capture(level, this))) {
+            markFieldChanged(level);
+            return;
+        }
 
-                    CraftingHelper.consumeCatalystItem(catalystEntities.get(0), 1);
+        MiniaturizationRecipe recipe = this.currentRecipe;
 
-                    BlockPos centerField = getCenter();
-                    level.setBlockAndUpdate(centerField, Registration.FIELD_CRAFTING_PREVIEW_BLOCK.get().defaultBlockState());
+        // We know the "recipe" in the field is an exact match already, so wipe the field
+        clearBlocks(level);
+        this.currentRecipe = null;
 
-                    // TODO - Expose this as a LazyOptional somehow
-                    FieldCraftingPreviewTile tile = (FieldCraftingPreviewTile) level.getBlockEntity(centerField);
-                    if (tile != null)
-                        tile.setField(this);
+        // The blocks make one copy; the virtual inventory can supply components for more,
+        // as far as the catalysts pay for them
+        int extra = maxBatch - 1;
+        int batch = 1 + (virtual == null || extra <= 0 ? 0 : virtual.takeCopies(recipe, extra));
 
-                    break;
+        CraftingHelper.consumeCatalystItems(catalystEntities, CraftingHelper.getCatalystPerCopy(recipe) * batch);
 
-                case CRAFTING:
-                    break;
-            }
+        if (running) {
+            craftQueue.stage(recipe, batch);
+            return;
         }
+
+        this.craftingState = EnumCraftingState.CRAFTING;
+        this.craftingBatch = batch;
+        level.setBlockAndUpdate(centerField, Registration.FIELD_CRAFTING_PREVIEW_BLOCK.get().defaultBlockState());
+
+        // TODO - Expose this as a LazyOptional somehow
+        FieldCraftingPreviewTile tile = (FieldCraftingPreviewTile) level.getBlockEntity(centerField);
+        if (tile != null)
+            tile.setField(this, recipe, batch);
     }
 
     /**
-     * Scans the field and attempts to match a recipe that's placed in it.
+     * Scans the field and attempts to match a recipe that's placed in it. Runs entirely on the
+     * calling thread; see {@link #startRecipeScan(World)} for the background version.
      */
     public void doRecipeScan(World level) {
         if (level == null)
             return;
 
-        CompactCrafting.LOGGER.debug("Beginning field recipe scan: {}", this.center);
+        FieldRecipeScan scan = prepareScan(level);
+        scan.run();
+        commitScan(level, scan);
+    }
 
-        Stream<BlockPos> filledBlocks = getFilledBlocks(level);
+    /**
+     * Reads the field on the calling (server) thread and queues the matching to run in the background.
+     * The result is applied a fixed number of ticks later; see {@link ServerConfig#recipeScanCommitDelay}.
+     */
+    @Override
+    public void startRecipeScan(World level) {
+        FieldRecipeScan scan = prepareScan(level);
+        Future<?> task = FieldScanExecutor.submit(scan);
+
+        // Pool is backed up; don't wait on it
+        if (task == null) {
+            scan.run();
+            commitScan(level, scan);
+            return;
+        }
 
-        // If no positions filled, exit early
-        if (filledBlocks.count() == 0) {
-            clearRecipe();
+        this.pendingScan = scan;
+        this.pendingScanTask = task;
+        this.pendingScanCommitTime = level.getGameTime() + ServerConfig.recipeScanCommitDelay;
+    }
+
+    /**
+     * Applies the background scan result. This always happens the configured number of ticks after
+     * the scan started, waiting for it if needed, so results land at the same point no matter how busy
+     * the pool is. If the field changed while the scan ran, the version check in {@link #commitScan}
+     * throws the result away.
+     */
+    private void finishPendingScan(World level) {
+        FieldRecipeScan scan = this.pendingScan;
+        Future<?> task = this.pendingScanTask;
+        this.pendingScan = null;
+        this.pendingScanTask = null;
+
+        try {
+            task.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            markFieldChanged(level);
             return;
+        } catch (ExecutionException | CancellationException e) {
+            CompactCrafting.LOGGER.error("Background recipe scan failed for field at {}; matching on the server thread instead.", center, e);
+            scan.run();
         }
 
-        // ===========================================================================================================
-        //   RECIPE BEGIN
-        // ===========================================================================================================
+        commitScan(level, scan);
+    }
+
+    /**
+     * Reads everything a scan needs out of the world. Must be called on the server thread.
+     */
+    private FieldRecipeScan prepareScan(World level) {
+        CompactCrafting.LOGGER.debug("Beginning field recipe scan: {}", this.center);
+
+        // Only re-read what changed if the last scan is still good; otherwise read the whole field once
+        FieldSnapshot previous = this.lastSnapshot;
+        boolean incremental = !fullRescan && previous != null && !MiniaturizationRecipeIndex.isStale(matchStateGeneration);
+
+        FieldSnapshot snapshot = incremental ?
+                previous.withChanges(level, dirtyPositions) :
+                FieldSnapshot.capture(level, this);
+
+        AxisAlignedBB filledBounds = snapshot.getFilledBounds();
+        long dirtyLayers = getDirtyLayers(filledBounds);
+
+        // Same filled area as last time; the cached per-layer results only need the changed layers redone
+        if (incremental && matchState != null && !snapshot.isEmpty() && filledBounds.equals(previous.getFilledBounds())) {
+            CompactCrafting.LOGGER.trace("Re-matching changed layers {}.", Long.toBinaryString(dirtyLayers));
+            return new FieldRecipeScan(changeVersion, snapshot, matchStateGeneration, null, matchState, dirtyLayers);
+        }
 
         /*
          * Dry run - we have the data from the field on what's filled and how large
-         * the area is. Run through the recipe list and filter based on that, so
-         * we remove all the recipes that are definitely larger than the currently
-         * filled space.
+         * the area is. The recipe index only hands back orientations with the same
+         * footprint as the currently filled space, so everything else is skipped.
          */
-        Set<MiniaturizationRecipe> recipes = level.getRecipeManager()
-                .getAllRecipesFor(Registration.MINIATURIZATION_RECIPE_TYPE)
-                .stream().map(r -> (MiniaturizationRecipe) r)
-                .filter(recipe -> recipe.fitsInDimensions(getFilledBounds(level)))
-                .collect(Collectors.toSet());
+        MiniaturizationRecipeIndex index = MiniaturizationRecipeIndex.get(level.getRecipeManager());
+        RecipeDiscriminationTable table = snapshot.isEmpty() ? null : index.getMatchTable(filledBounds);
 
-        /*
-         * All the recipes we have registered won't fit in the filled bounds -
-         * blocks were placed in a larger space than the max recipe size
-         */
-        CompactCrafting.LOGGER.trace("Matched a total of {} possible recipes.", recipes.size());
-        if (recipes.isEmpty()) {
-            clearRecipe();
+        CompactCrafting.LOGGER.trace("Matching against {} possible recipe orientations.", table == null ? 0 : table.size());
+        return new FieldRecipeScan(changeVersion, snapshot, index.getGeneration(), table, null, 0);
+    }
+
+    /**
+     * Applies a finished scan, unless the field changed after the scan read it.
+     */
+    private void commitScan(World level, FieldRecipeScan scan) {
+        if (scan.getVersion() != changeVersion) {
+            // The change that made this stale already scheduled another scan
+            CompactCrafting.LOGGER.trace("Dropping stale recipe scan for field at {}.", center);
             return;
         }
 
-        // Begin recipe dry run - loop, check bottom layer for matches
-        MiniaturizationRecipe matchedRecipe = null;
-        for (MiniaturizationRecipe recipe : recipes) {
-            boolean recipeMatches = recipe.matches(level, this);
-            if (!recipeMatches)
-                continue;
+        this.lastSnapshot = scan.getSnapshot();
+        this.matchState = scan.getState();
+        this.matchStateGeneration = scan.getGeneration();
+        this.fullRescan = false;
+        this.dirtyPositions.clear();
 
-            matchedRecipe = recipe;
-            this.craftingState = EnumCraftingState.MATCHED;
-            break;
+        if (scan.isCached())
+            CompactCrafting.LOGGER.trace("Reused cached recipe match for field at {}.", center);
+
+        Optional<MiniaturizationRecipe> matched = scan.getMatchedRecipe();
+        if (matched.isPresent())
+            this.recipeGeneration = scan.getGeneration();
+
+        // A running craft stays the field's state; the match is picked up once it finishes or is staged
+        if (craftingState != EnumCraftingState.CRAFTING)
+            this.craftingState = matched.isPresent() ? EnumCraftingState.MATCHED : EnumCraftingState.NOT_MATCHED;
+
+        this.currentRecipe = matched.orElse(null);
+
+        // The catalyst may have been thrown in before the layout was finished
+        wakeForCatalyst(level);
+    }
+
+    /**
+     * Gets the layers (relative to the bottom of the filled bounds) that hold a dirty position, one bit each.
+     */
+    private long getDirtyLayers(AxisAlignedBB filledBounds) {
+        int minY = (int) Math.floor(filledBounds.minY);
+
+        long layers = 0;
+        for (BlockPos pos : dirtyPositions) {
+            int layer = pos.getY() - minY;
+            if (layer >= 0 && layer < 64)
+                layers |= 1L << layer;
         }
 
-        this.currentRecipe = matchedRecipe;
+        return layers;
     }
 
     @Override
@@ -241,35 +535,79 @@ public class MiniaturizationField implements IMiniaturizationField {
         this.craftingState = state;
     }
 
-    private List<ItemEntity> getCatalystsInField(IWorld level, AxisAlignedBB fieldBounds, Item itemFilter) {
-        List<ItemEntity> itemsInRange = level.getEntitiesOfClass(ItemEntity.class, fieldBounds);
-        return itemsInRange.stream()
-                .filter(ise -> ise.getItem().getItem() == itemFilter)
-                .collect(Collectors.toList());
+    @Override
+    public boolean isLoaded() {
+        if (size == null || center == null)
+            return false;
+
+        return loadedChunks == (1 << getRequiredChunks().length) - 1;
     }
 
     @Override
-    public boolean isLoaded() {
-        return loaded;
+    public long[] getRequiredChunks() {
+        if (requiredChunks == null) {
+            // Projectors sit one block past the projector distance on each side
+            int reach = size.getProjectorDistance() + 1;
+            int minX = (center.getX() - reach) >> 4, maxX = (center.getX() + reach) >> 4;
+            int minZ = (center.getZ() - reach) >> 4, maxZ = (center.getZ() + reach) >> 4;
+
+            long[] chunks = new long[(maxX - minX + 1) * (maxZ - minZ + 1)];
+            int i = 0;
+            for (int x = minX; x <= maxX; x++)
+                for (int z = minZ; z <= maxZ; z++)
+                    chunks[i++] = ChunkPos.asLong(x, z);
+
+            this.requiredChunks = chunks;
+        }
+
+        return requiredChunks;
     }
 
-    public void checkLoaded(World level) {
-        CompactCrafting.LOGGER.trace("Checking loaded state.");
-        this.loaded = level.isAreaLoaded(center, size.getProjectorDistance() + 3);
+    @Override
+    public boolean setChunkLoaded(long chunk, boolean loaded) {
+        long[] chunks = getRequiredChunks();
+        for (int i = 0; i < chunks.length; i++) {
+            if (chunks[i] != chunk)
+                continue;
 
-        if(loaded) {
-            getProjectorPositions().forEach(proj -> {
-                FieldProjectorBlock.activateProjector(level, proj, this.size);
-            });
+            if (loaded)
+                this.loadedChunks |= 1 << i;
+            else
+                this.loadedChunks &= ~(1 << i);
         }
+
+        return isLoaded();
+    }
+
+    /**
+     * Reads the loaded state of every required chunk from the world. Only needed when the field is first
+     * set up, since chunks that loaded before then never sent us an event.
+     */
+    public void checkLoaded(World level) {
+        CompactCrafting.LOGGER.trace("Checking loaded state.");
+        for (long chunk : getRequiredChunks())
+            setChunkLoaded(chunk, level.getChunkSource().hasChunk(ChunkPos.getX(chunk), ChunkPos.getZ(chunk)));
     }
 
     @Override
     public void markFieldChanged(World w) {
+        // We don't know what changed, so the next scan has to read everything
+        this.fullRescan = true;
+        this.changeVersion++;
+
         // clear the recipe immediately so people can't dupe items or juke the projectors
         this.clearRecipe();
 
         // set a distant rescan duration to make the field revalidate itself after a second or two
         this.rescanTime = w.getGameTime() + 30;
     }
+
+    @Override
+    public void markFieldChanged(World w, Collection<BlockPos> changed) {
+        this.dirtyPositions.addAll(changed);
+        this.changeVersion++;
+
+        this.clearRecipe();
+        this.rescanTime = w.getGameTime() + 30;
+    }
 }
@@ -0,0 +1,431 @@
+package com.robotgryphon.compactcrafting.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.api.components.IRecipeBlockComponent;
+import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.item.BlockItem;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.util.ResourceLocation;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraftforge.common.util.INBTSerializable;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import net.minecraftforge.items.ItemStackHandler;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.*;
+
+/**
+ * Crafts a field's recipes straight from an inventory instead of blocks placed in the world. Inserted
+ * block items are counted against each candidate recipe's component totals, as if they had been built
+ * into the recipe's layout; nothing is ever placed or cleared, and the craft takes the same time as
+ * one done in the world.
+ *
+ * The inventory is exposed by the field's projectors. Slot 0 takes the catalyst, the next slots take
+ * components, and the last slots hold finished outputs (extract only). Only items some recipe uses as
+ * a catalyst go in slot 0, and those stay out of the component slots, so piping into the first free
+ * slot sorts itself out. Nothing is used up until a craft starts, so any slot can be emptied again.
+ */
+public class VirtualField implements INBTSerializable<CompoundNBT> {
+
+    public static final int CATALYST_SLOT = 0;
+    public static final int INPUT_SLOTS = 27;
+    public static final int OUTPUT_SLOTS = 9;
+
+    private static final int FIRST_INPUT = CATALYST_SLOT + 1;
+    private static final int FIRST_OUTPUT = FIRST_INPUT + INPUT_SLOTS;
+
+    private final FieldProjectionSize fieldSize;
+    private final Inventory inventory = new Inventory();
+
+    @Nullable
+    private MiniaturizationRecipe crafting;
+
+    /**
+     * Recipe id of a craft read from NBT, resolved on the first tick.
+     */
+    @Nullable
+    private ResourceLocation craftingId;
+    private long craftEnd;
+
+    /**
+     * Number of copies the running craft makes.
+     */
+    private int craftingBatch = 1;
+
+    /**
+     * Set while a finished craft waits for room in the output slots.
+     */
+    private boolean outputsBlocked;
+
+    /**
+     * Called whenever the inventory changes, so the field can wake up and look for a craft.
+     */
+    private Runnable changeListener = () -> {};
+
+    public VirtualField(FieldProjectionSize fieldSize) {
+        this.fieldSize = fieldSize;
+    }
+
+    public IItemHandler getInventory() {
+        return inventory;
+    }
+
+    public void setChangeListener(Runnable changeListener) {
+        this.changeListener = changeListener;
+    }
+
+    public boolean isCrafting() {
+        return crafting != null || craftingId != null;
+    }
+
+    /**
+     * Gets the game time this virtual field next needs a tick at, or -1 if it's waiting on its inventory.
+     */
+    public long getNextTickTime() {
+        // A blocked craft waits for items to be taken out, which wakes the field
+        return isCrafting() && !outputsBlocked ? craftEnd : -1;
+    }
+
+    /**
+     * Finishes the running craft if it's done, then starts the next one if the inventory holds one.
+     */
+    public void tick(World level) {
+        if (craftingId != null) {
+            this.crafting = level.getRecipeManager().byKey(craftingId)
+                    .filter(r -> r instanceof MiniaturizationRecipe)
+                    .map(r -> (MiniaturizationRecipe) r)
+                    .orElse(null);
+
+            if (crafting == null)
+                CompactCrafting.LOGGER.warn("Virtual craft for recipe {} was lost; the recipe no longer exists.", craftingId);
+
+            this.craftingId = null;
+        }
+
+        if (crafting != null) {
+            if (level.getGameTime() < craftEnd)
+                return;
+
+            // Outputs wait in the recipe until there's room for all of them; taking items out wakes us again
+            List<ItemStack> outputs = CraftingHelper.getBatchOutputs(crafting.getOutputs(), craftingBatch);
+            this.outputsBlocked = !insertOutputs(outputs, true);
+            if (outputsBlocked)
+                return;
+
+            insertOutputs(outputs, false);
+            this.crafting = null;
+            this.craftingBatch = 1;
+        }
+
+        tryStartCraft(level);
+    }
+
+    private void tryStartCraft(World level) {
+        ItemStack catalyst = inventory.getStackInSlot(CATALYST_SLOT);
+        if (catalyst.isEmpty())
+            return;
+
+        MiniaturizationRecipeIndex index = MiniaturizationRecipeIndex.get(level.getRecipeManager());
+        for (MiniaturizationRecipe recipe : index.getRecipesForCatalyst(catalyst.getItem())) {
+            // As many copies as the catalysts, the inputs and the room for outputs allow
+            int maxBatch = CraftingHelper.getMaxBatch(recipe, catalyst.getCount());
+            if (maxBatch < 1 || !recipe.fitsInFieldSize(fieldSize))
+                continue;
+
+            int batch = getLargestBatch(recipe, maxBatch, true);
+            if (batch == 0)
+                continue;
+
+            take(allocate(recipe, batch));
+            inventory.extractInternal(CATALYST_SLOT, CraftingHelper.getCatalystPerCopy(recipe) * batch);
+
+            this.crafting = recipe;
+            this.craftingBatch = batch;
+            this.craftEnd = level.getGameTime() + recipe.getTicks();
+            return;
+        }
+    }
+
+    /**
+     * Takes the components for extra copies of a recipe being crafted in the world, so one craft
+     * there can make a whole batch.
+     *
+     * @param recipe The recipe being crafted.
+     * @param max The most copies to take.
+     * @return The number of copies whose components were taken.
+     */
+    public int takeCopies(MiniaturizationRecipe recipe, int max) {
+        // These outputs come out of the world craft, not the output slots
+        int copies = getLargestBatch(recipe, max, false);
+        if (copies > 0)
+            take(allocate(recipe, copies));
+
+        return copies;
+    }
+
+    private int getLargestBatch(MiniaturizationRecipe recipe, int max, boolean checkOutputs) {
+        if (max < 1 || !canBatch(recipe, 1, checkOutputs))
+            return 0;
+
+        // Allocation is monotonic in the batch size, so the largest one can be searched for
+        int low = 1, high = max;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (canBatch(recipe, mid, checkOutputs))
+                low = mid;
+            else
+                high = mid - 1;
+        }
+
+        return low;
+    }
+
+    private boolean canBatch(MiniaturizationRecipe recipe, int batch, boolean checkOutputs) {
+        if (allocate(recipe, batch) == null)
+            return false;
+
+        return !checkOutputs || insertOutputs(CraftingHelper.getBatchOutputs(recipe.getOutputs(), batch), true);
+    }
+
+    private void take(int[] taken) {
+        for (int i = 0; i < INPUT_SLOTS; i++) {
+            if (taken[i] > 0)
+                inventory.extractInternal(FIRST_INPUT + i, taken[i]);
+        }
+    }
+
+    /**
+     * Works out how many items to take from each input slot to cover every component of a recipe.
+     * Components are filled in key order, each from the first slots that match it.
+     *
+     * @param batch Number of copies of the recipe to cover.
+     * @return Items to take per input slot, or null if the inputs don't cover the recipe.
+     */
+    @Nullable
+    private int[] allocate(MiniaturizationRecipe recipe, int batch) {
+        int[] taken = new int[INPUT_SLOTS];
+        BlockState air = Blocks.AIR.defaultBlockState();
+
+        for (Map.Entry<String, Integer> required : new TreeMap<>(recipe.getRecipeComponentTotals()).entrySet()) {
+            IRecipeBlockComponent component = recipe.getRecipeBlockComponent(required.getKey()).orElse(null);
+
+            // Empty space in the layout doesn't need an item
+            if (component == null || component.matches(air))
+                continue;
+
+            int needed = required.getValue() * batch;
+            for (int i = 0; i < INPUT_SLOTS && needed > 0; i++) {
+                ItemStack stack = inventory.getStackInSlot(FIRST_INPUT + i);
+                int available = stack.getCount() - taken[i];
+                if (available <= 0 || !component.matches(getPlacedState(stack.getItem())))
+                    continue;
+
+                int take = Math.min(available, needed);
+                taken[i] += take;
+                needed -= take;
+            }
+
+            if (needed > 0)
+                return null;
+        }
+
+        return taken;
+    }
+
+    private static BlockState getPlacedState(Item item) {
+        return item instanceof BlockItem ?
+                ((BlockItem) item).getBlock().defaultBlockState() :
+                Blocks.AIR.defaultBlockState();
+    }
+
+    private static boolean isCatalyst(Item item) {
+        // Before the first index is built there's nothing a catalyst could start anyway
+        MiniaturizationRecipeIndex index = MiniaturizationRecipeIndex.getCurrent();
+        return index != null && !index.getRecipesForCatalyst(item).isEmpty();
+    }
+
+    private boolean insertOutputs(List<ItemStack> outputs, boolean simulate) {
+        // Simulating stack by stack doesn't account for earlier stacks; check against a copy instead
+        Inventory target = simulate ? inventory.copyOutputs() : inventory;
+        for (ItemStack output : outputs) {
+            ItemStack remaining = output.copy();
+            for (int i = FIRST_OUTPUT; i < FIRST_OUTPUT + OUTPUT_SLOTS && !remaining.isEmpty(); i++)
+                remaining = target.insertInternal(i, remaining);
+
+            if (!remaining.isEmpty())
+                return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public CompoundNBT serializeNBT() {
+        CompoundNBT nbt = new CompoundNBT();
+        nbt.put("inventory", inventory.serializeNBT());
+
+        ResourceLocation id = crafting != null ? crafting.getId() : craftingId;
+        if (id != null) {
+            nbt.putString("recipe", id.toString());
+            nbt.putLong("end", craftEnd);
+            nbt.putInt("batch", craftingBatch);
+        }
+
+        return nbt;
+    }
+
+    @Override
+    public void deserializeNBT(CompoundNBT nbt) {
+        inventory.deserializeNBT(nbt.getCompound("inventory"));
+
+        this.crafting = null;
+        this.craftingId = nbt.contains("recipe") ? new ResourceLocation(nbt.getString("recipe")) : null;
+        this.craftEnd = nbt.getLong("end");
+        this.craftingBatch = Math.max(1, nbt.getInt("batch"));
+        this.outputsBlocked = false;
+    }
+
+    /**
+     * Makes a virtual field for a different field size, holding everything this one holds.
+     */
+    public VirtualField resize(FieldProjectionSize size) {
+        VirtualField resized = new VirtualField(size);
+        resized.deserializeNBT(serializeNBT());
+        resized.setChangeListener(changeListener);
+        return resized;
+    }
+
+    /**
+     * Drops the inventory in the world, along with what the running craft would have made, for
+     * when the field goes away.
+     */
+    public void dropContents(World level, BlockPos pos) {
+        List<ItemStack> stacks = new ArrayList<>();
+        for (int i = 0; i < inventory.getSlots(); i++) {
+            ItemStack stack = inventory.getStackInSlot(i);
+            if (!stack.isEmpty())
+                stacks.add(stack.copy());
+        }
+
+        MiniaturizationRecipe running = crafting;
+        if (running == null && craftingId != null) {
+            running = level.getRecipeManager().byKey(craftingId)
+                    .filter(r -> r instanceof MiniaturizationRecipe)
+                    .map(r -> (MiniaturizationRecipe) r)
+                    .orElse(null);
+        }
+
+        // The inputs for it are already gone
+        if (running != null)
+            stacks.addAll(CraftingHelper.getBatchOutputs(running.getOutputs(), craftingBatch));
+
+        FieldOutputs.spawn(level, pos, stacks);
+
+        inventory.clear();
+
+        this.crafting = null;
+        this.craftingId = null;
+        this.craftingBatch = 1;
+    }
+
+    public boolean isEmpty() {
+        if (isCrafting())
+            return false;
+
+        for (int i = 0; i < inventory.getSlots(); i++) {
+            if (!inventory.getStackInSlot(i).isEmpty())
+                return false;
+        }
+
+        return true;
+    }
+
+    private class Inventory extends ItemStackHandler {
+
+        Inventory() {
+            super(FIRST_OUTPUT + OUTPUT_SLOTS);
+        }
+
+        @Override
+        public boolean isItemValid(int slot, @Nonnull ItemStack stack) {
+            if (slot == CATALYST_SLOT)
+                return isCatalyst(stack.getItem());
+
+            return slot < FIRST_OUTPUT && stack.getItem() instanceof BlockItem && !isCatalyst(stack.getItem());
+        }
+
+        ItemStack insertInternal(int slot, ItemStack stack) {
+            ItemStack existing = getStackInSlot(slot);
+            int limit = Math.min(getSlotLimit(slot), stack.getMaxStackSize());
+
+            if (!existing.isEmpty()) {
+                if (!ItemHandlerHelper.canItemStacksStack(stack, existing))
+                    return stack;
+
+                limit -= existing.getCount();
+            }
+
+            if (limit <= 0)
+                return stack;
+
+            int moved = Math.min(limit, stack.getCount());
+            if (existing.isEmpty())
+                stacks.set(slot, ItemHandlerHelper.copyStackWithSize(stack, moved));
+            else
+                existing.grow(moved);
+
+            onContentsChanged(slot);
+            return moved == stack.getCount() ? ItemStack.EMPTY : ItemHandlerHelper.copyStackWithSize(stack, stack.getCount() - moved);
+        }
+
+        void extractInternal(int slot, int amount) {
+            ItemStack existing = getStackInSlot(slot);
+            if (existing.isEmpty())
+                return;
+
+            existing.shrink(amount);
+            if (existing.isEmpty())
+                stacks.set(slot, ItemStack.EMPTY);
+
+            onContentsChanged(slot);
+        }
+
+        /**
+         * Empties every slot without telling the field, which is going away.
+         */
+        void clear() {
+            for (int i = 0; i < stacks.size(); i++)
+                stacks.set(i, ItemStack.EMPTY);
+        }
+
+        /**
+         * Copies the output slots into a detached inventory, for simulating insertions.
+         */
+        Inventory copyOutputs() {
+            Inventory copy = new Inventory() {
+                @Override
+                protected void onContentsChanged(int slot) {
+                }
+            };
+
+            for (int i = FIRST_OUTPUT; i < getSlots(); i++)
+                copy.stacks.set(i, getStackInSlot(i).copy());
+
+            return copy;
+        }
+
+        @Override
+        protected void onContentsChanged(int slot) {
+            changeListener.run();
+        }
+    }
+}
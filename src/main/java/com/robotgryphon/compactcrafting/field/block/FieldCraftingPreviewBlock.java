@@ -10,8 +10,10 @@ import net.minecraft.util.math.shapes.ISelectionContext;
 import net.minecraft.util.math.shapes.VoxelShape;
 import net.minecraft.util.math.shapes.VoxelShapes;
 import net.minecraft.world.IBlockReader;
+import net.minecraft.world.server.ServerWorld;
 
 import javax.annotation.Nullable;
+import java.util.Random;
 
 public class FieldCraftingPreviewBlock extends Block {
     public FieldCraftingPreviewBlock(Properties properties) {
@@ -29,6 +31,14 @@ public class FieldCraftingPreviewBlock extends Block {
         return new FieldCraftingPreviewTile();
     }
 
+    @Override
+    public void tick(BlockState state, ServerWorld level, BlockPos pos, Random rand) {
+        // Scheduled when a craft starts, for when it ends
+        TileEntity tile = level.getBlockEntity(pos);
+        if (tile instanceof FieldCraftingPreviewTile)
+            ((FieldCraftingPreviewTile) tile).tryCompleteCraft();
+    }
+
     @Override
     public VoxelShape getShape(BlockState p_220053_1_, IBlockReader p_220053_2_, BlockPos p_220053_3_, ISelectionContext p_220053_4_) {
         return VoxelShapes.empty();
@@ -1,28 +1,80 @@
 package com.robotgryphon.compactcrafting.field.capability;
 
 import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import com.robotgryphon.compactcrafting.util.TimingWheel;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Object2LongMap;
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.SectionPos;
 import net.minecraft.world.World;
 import net.minecraft.world.server.ServerWorld;
 import net.minecraftforge.common.util.LazyOptional;
 
-import java.util.HashMap;
-import java.util.Optional;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import java.util.function.Predicate;
 import java.util.stream.Stream;
 
 public class ActiveWorldFields implements IActiveWorldFields {
 
     /**
-     * Holds a set of miniaturization fields that are active, referenced by their center point.
+     * Holds a set of miniaturization fields that are active, referenced by their center point (as a long).
      */
-    private HashMap<BlockPos, IMiniaturizationField> fields;
-    private HashMap<BlockPos, LazyOptional<IMiniaturizationField>> laziness;
+    private final Long2ObjectMap<IMiniaturizationField> fields;
+    private final Long2ObjectMap<LazyOptional<IMiniaturizationField>> laziness;
+
+    /**
+     * Fields by every chunk section their bounds touch, so a block position can be resolved to
+     * the fields around it without looking at the world.
+     */
+    private final Long2ObjectMap<List<IMiniaturizationField>> bySection;
+
+    /**
+     * Fields by every chunk they need loaded to tick; see {@link IMiniaturizationField#getRequiredChunks()}.
+     */
+    private final Long2ObjectMap<List<IMiniaturizationField>> byChunk;
+
+    /**
+     * Fields only tick when they asked to (see {@link IMiniaturizationField#getNextTickTime(long)}) or
+     * something woke them; everything else sleeps and costs nothing per tick.
+     */
+    private final TimingWheel<IMiniaturizationField> wakeups;
+
+    /**
+     * The earliest time each sleeping field is scheduled for. Wheel entries that don't match this were
+     * superseded by an earlier wakeup and are ignored.
+     */
+    private final Object2LongMap<IMiniaturizationField> wakeTimes;
+    private final List<IMiniaturizationField> due;
+
+    /**
+     * How long to wait before looking again at a field whose chunks are loaded but not entity-ticking.
+     * There's no event for that changing, so it's polled, but only for fields that actually want to tick.
+     */
+    private static final int ENTITY_TICKING_RECHECK = 20;
+
+    /**
+     * Recipe generation fields were last woken for; a reload wakes every field so matched recipes get dropped.
+     */
+    private int recipeGeneration;
 
     public ActiveWorldFields() {
-        this.fields = new HashMap<>();
-        this.laziness = new HashMap<>();
+        this.fields = new Long2ObjectOpenHashMap<>();
+        this.laziness = new Long2ObjectOpenHashMap<>();
+        this.bySection = new Long2ObjectOpenHashMap<>();
+        this.byChunk = new Long2ObjectOpenHashMap<>();
+
+        this.wakeups = new TimingWheel<>(64);
+        this.wakeTimes = new Object2LongOpenHashMap<>();
+        this.wakeTimes.defaultReturnValue(Long.MAX_VALUE);
+        this.due = new ArrayList<>();
+        this.recipeGeneration = MiniaturizationRecipeIndex.getCurrentGeneration();
     }
 
     @Override
@@ -31,43 +83,251 @@ public class ActiveWorldFields implements IActiveWorldFields {
     }
 
     public void tickFields(World level) {
-        Set<IMiniaturizationField> loaded = fields.values().stream()
-                .filter(IMiniaturizationField::isLoaded)
-                .collect(Collectors.toSet());
+        int generation = MiniaturizationRecipeIndex.getCurrentGeneration();
+        if (generation != recipeGeneration) {
+            this.recipeGeneration = generation;
+            fields.values().forEach(this::wakeField);
+        }
 
-        CompactCrafting.LOGGER.trace("Loaded count ({}): {}", level.dimension().location(), loaded.size());
-        loaded.forEach(f -> f.tick(level));
+        int ticked = tickFields(level.getGameTime(), f -> isEntityTicking(level, f), f -> f.tick(level));
+        if (ticked > 0)
+            CompactCrafting.LOGGER.trace("Ticked fields ({}): {}", level.dimension().location(), ticked);
+    }
+
+    /**
+     * Ticks every field that is due at a game time, then puts each back to sleep until it next needs to tick.
+     *
+     * @param gameTime The current game time.
+     * @param ticker Ticks a single field.
+     * @return The number of fields that were due.
+     */
+    public int tickFields(long gameTime, Consumer<IMiniaturizationField> ticker) {
+        return tickFields(gameTime, f -> true, ticker);
+    }
+
+    /**
+     * Same as {@link #tickFields(long, Consumer)}, but a due field that fails {@code canTick} is skipped
+     * and looked at again a little later.
+     */
+    public int tickFields(long gameTime, Predicate<IMiniaturizationField> canTick, Consumer<IMiniaturizationField> ticker) {
+        wakeups.advance(gameTime, this::onWakeup);
+        if (due.isEmpty())
+            return 0;
+
+        for (int i = 0; i < due.size(); i++) {
+            IMiniaturizationField field = due.get(i);
+
+            // Unloaded fields stay asleep; they're woken again once they load
+            if (!field.isLoaded())
+                continue;
+
+            // Catalyst items don't move in chunks that aren't entity-ticking, so there's nothing to do yet
+            if (!canTick.test(field)) {
+                schedule(field, gameTime + ENTITY_TICKING_RECHECK);
+                continue;
+            }
+
+            ticker.accept(field);
+
+            long next = field.getNextTickTime(gameTime);
+            if (next >= 0)
+                schedule(field, next);
+        }
+
+        int ticked = due.size();
+        due.clear();
+        return ticked;
+    }
+
+    private static boolean isEntityTicking(World level, IMiniaturizationField field) {
+        return !(level instanceof ServerWorld) || ((ServerWorld) level).isPositionEntityTicking(field.getCenter());
+    }
+
+    @Override
+    public void setChunkLoaded(ChunkPos chunk, boolean loaded) {
+        List<IMiniaturizationField> inChunk = byChunk.get(chunk.toLong());
+        if (inChunk == null)
+            return;
+
+        for (IMiniaturizationField field : inChunk) {
+            boolean wasLoaded = field.isLoaded();
+            if (field.setChunkLoaded(chunk.toLong(), loaded) && !wasLoaded)
+                wakeField(field);
+        }
+    }
+
+    private void onWakeup(IMiniaturizationField field, long time) {
+        if (wakeTimes.getLong(field) != time)
+            return;
+
+        wakeTimes.removeLong(field);
+
+        // Unregistered since it was scheduled
+        if (fields.get(field.getCenter().asLong()) != field)
+            return;
+
+        due.add(field);
+    }
+
+    @Override
+    public void wakeField(IMiniaturizationField field) {
+        schedule(field, Long.MIN_VALUE);
+    }
+
+    private void schedule(IMiniaturizationField field, long time) {
+        long at = Math.max(time, wakeups.getCurrentTime() + 1);
+        if (wakeTimes.getLong(field) <= at)
+            return;
+
+        wakeTimes.put(field, wakeups.schedule(field, at));
+    }
+
+    /**
+     * Gets the number of fields waiting on a wakeup. Everything else is asleep until something wakes it.
+     */
+    public int getScheduledCount() {
+        return wakeTimes.size();
     }
 
     public void registerField(IMiniaturizationField field) {
         BlockPos center = field.getCenter();
-        fields.put(center, field);
+        long key = center.asLong();
+
+        // Re-registering replaces the old field, index included
+        IMiniaturizationField existing = fields.get(key);
+        if (existing != null) {
+            removeFromSections(existing);
+            removeFromChunks(existing);
+        }
+
+        fields.put(key, field);
+        addToSections(field);
+        for (long chunk : field.getRequiredChunks())
+            byChunk.computeIfAbsent(chunk, k -> new ArrayList<>(1)).add(field);
 
         LazyOptional<IMiniaturizationField> lazy = LazyOptional.of(() -> field);
-        laziness.put(center, lazy);
+        laziness.put(key, lazy);
 
         lazy.addListener(lo -> {
             lo.ifPresent(this::unregisterField);
         });
+
+        wakeField(field);
     }
 
     public void unregisterField(IMiniaturizationField field) {
-        BlockPos center = field.getCenter();
-        fields.remove(center);
-        laziness.remove(center);
+        long key = field.getCenter().asLong();
+        IMiniaturizationField removed = fields.remove(key);
+        laziness.remove(key);
+
+        if (removed != null) {
+            removeFromSections(removed);
+            removeFromChunks(removed);
+            wakeTimes.removeLong(removed);
+        }
+    }
+
+    private void removeFromChunks(IMiniaturizationField field) {
+        for (long chunk : field.getRequiredChunks()) {
+            List<IMiniaturizationField> inChunk = byChunk.get(chunk);
+            if (inChunk == null)
+                continue;
+
+            inChunk.remove(field);
+            if (inChunk.isEmpty())
+                byChunk.remove(chunk);
+        }
+    }
+
+    private void addToSections(IMiniaturizationField field) {
+        forEachSection(field, section -> bySection.computeIfAbsent(section, k -> new ArrayList<>(1)).add(field));
+    }
+
+    private void removeFromSections(IMiniaturizationField field) {
+        forEachSection(field, section -> {
+            List<IMiniaturizationField> inSection = bySection.get(section);
+            if (inSection == null)
+                return;
+
+            inSection.remove(field);
+            if (inSection.isEmpty())
+                bySection.remove(section);
+        });
+    }
+
+    private static void forEachSection(IMiniaturizationField field, LongConsumer action) {
+        AxisAlignedBB bounds = field.getBounds();
+
+        // Bounds are block-aligned with an exclusive max
+        int minX = (int) Math.floor(bounds.minX) >> 4, maxX = ((int) Math.ceil(bounds.maxX) - 1) >> 4;
+        int minY = (int) Math.floor(bounds.minY) >> 4, maxY = ((int) Math.ceil(bounds.maxY) - 1) >> 4;
+        int minZ = (int) Math.floor(bounds.minZ) >> 4, maxZ = ((int) Math.ceil(bounds.maxZ) - 1) >> 4;
+
+        for (int x = minX; x <= maxX; x++)
+            for (int y = minY; y <= maxY; y++)
+                for (int z = minZ; z <= maxZ; z++)
+                    action.accept(SectionPos.asLong(x, y, z));
+    }
+
+    @Override
+    public Collection<IMiniaturizationField> getFieldsContaining(BlockPos pos) {
+        List<IMiniaturizationField> inSection = bySection.get(SectionPos.asLong(pos.getX() >> 4, pos.getY() >> 4, pos.getZ() >> 4));
+        if (inSection == null)
+            return Collections.emptyList();
+
+        List<IMiniaturizationField> containing = new ArrayList<>(inSection.size());
+        for (IMiniaturizationField field : inSection) {
+            if (field.getBounds().contains(pos.getX() + 0.5, pos.getY() + 0.5, pos.getZ() + 0.5))
+                containing.add(field);
+        }
+
+        return containing;
+    }
+
+    @Override
+    public Collection<IMiniaturizationField> getFieldsIntersecting(AxisAlignedBB area) {
+        int minX = (int) Math.floor(area.minX) >> 4, maxX = (int) Math.floor(area.maxX) >> 4;
+        int minY = (int) Math.floor(area.minY) >> 4, maxY = (int) Math.floor(area.maxY) >> 4;
+        int minZ = (int) Math.floor(area.minZ) >> 4, maxZ = (int) Math.floor(area.maxZ) >> 4;
+
+        List<IMiniaturizationField> intersecting = null;
+        for (int x = minX; x <= maxX; x++) {
+            for (int y = minY; y <= maxY; y++) {
+                for (int z = minZ; z <= maxZ; z++) {
+                    List<IMiniaturizationField> inSection = bySection.get(SectionPos.asLong(x, y, z));
+                    if (inSection == null)
+                        continue;
+
+                    for (IMiniaturizationField field : inSection) {
+                        if (!field.getBounds().intersects(area))
+                            continue;
+
+                        if (intersecting == null)
+                            intersecting = new ArrayList<>(1);
+
+                        // Fields spanning sections are listed in each of them
+                        if (!intersecting.contains(field))
+                            intersecting.add(field);
+                    }
+                }
+            }
+        }
+
+        return intersecting == null ? Collections.emptyList() : intersecting;
     }
 
     public LazyOptional<IMiniaturizationField> getLazy(BlockPos center) {
-        return laziness.getOrDefault(center, LazyOptional.empty());
+        LazyOptional<IMiniaturizationField> lazy = laziness.get(center.asLong());
+        return lazy == null ? LazyOptional.empty() : lazy;
     }
 
     @Override
     public Optional<IMiniaturizationField> get(BlockPos center) {
-        return Optional.ofNullable(fields.getOrDefault(center, null));
+        return Optional.ofNullable(fields.get(center.asLong()));
     }
 
     @Override
     public boolean hasActiveField(BlockPos center) {
-        return fields.containsKey(center);
+        return fields.containsKey(center.asLong());
     }
 }
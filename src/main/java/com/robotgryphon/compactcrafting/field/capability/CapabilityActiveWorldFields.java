@@ -1,5 +1,6 @@
 package com.robotgryphon.compactcrafting.field.capability;
 
+import com.robotgryphon.compactcrafting.crafting.EnumCraftingState;
 import com.robotgryphon.compactcrafting.data.NbtListCollector;
 import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
 import com.robotgryphon.compactcrafting.field.MiniaturizationField;
@@ -33,6 +34,15 @@ public class CapabilityActiveWorldFields {
                                     CompoundNBT nbt = new CompoundNBT();
                                     nbt.putString("size", field.getFieldSize().name());
                                     nbt.put("center", NBTUtil.writeBlockPos(field.getCenter()));
+                                    nbt.putString("craftingState", field.getCraftingState().name());
+                                    field.getCraftQueue()
+                                            .ifPresent(q -> nbt.put("queue", q.serializeNBT()));
+                                    field.getFieldOutputs()
+                                            .filter(o -> o.getBufferedStacks() > 0)
+                                            .ifPresent(o -> nbt.put("outputs", o.serializeNBT()));
+                                    field.getVirtualField()
+                                            .filter(v -> !v.isEmpty())
+                                            .ifPresent(v -> nbt.put("virtual", v.serializeNBT()));
                                     return nbt;
                                 })
                             .collect(NbtListCollector.toNbtList());
@@ -56,6 +66,19 @@ public class CapabilityActiveWorldFields {
                             BlockPos center = NBTUtil.readBlockPos(f.getCompound("center"));
 
                             MiniaturizationField field = MiniaturizationField.fromSizeAndCenter(size, center);
+                            // A craft may still be running in the world; without this the next one could replace it
+                            if (f.contains("craftingState"))
+                                field.setCraftingState(EnumCraftingState.valueOf(f.getString("craftingState")));
+
+                            if (f.contains("queue"))
+                                field.getCraftQueue().ifPresent(q -> q.deserializeNBT(f.getCompound("queue")));
+
+                            if (f.contains("outputs"))
+                                field.getFieldOutputs().ifPresent(o -> o.deserializeNBT(f.getCompound("outputs")));
+
+                            if (f.contains("virtual"))
+                                field.getVirtualField().ifPresent(v -> v.deserializeNBT(f.getCompound("virtual")));
+
                             instance.registerField(field);
                         });
                     }
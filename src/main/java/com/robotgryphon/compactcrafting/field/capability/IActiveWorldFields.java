@@ -1,9 +1,12 @@
 package com.robotgryphon.compactcrafting.field.capability;
 
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.util.LazyOptional;
 
+import java.util.Collection;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -17,8 +20,28 @@ public interface IActiveWorldFields {
 
     void unregisterField(IMiniaturizationField field);
 
+    /**
+     * Makes a sleeping field tick on the next field tick, whatever it had scheduled.
+     */
+    void wakeField(IMiniaturizationField field);
+
+    /**
+     * Updates the loaded state of every field that needs a chunk, waking any that became fully loaded.
+     */
+    void setChunkLoaded(ChunkPos chunk, boolean loaded);
+
     Optional<IMiniaturizationField> get(BlockPos center);
 
+    /**
+     * Gets every active field whose bounds contain a position.
+     */
+    Collection<IMiniaturizationField> getFieldsContaining(BlockPos pos);
+
+    /**
+     * Gets every active field whose bounds intersect an area.
+     */
+    Collection<IMiniaturizationField> getFieldsIntersecting(AxisAlignedBB area);
+
     LazyOptional<IMiniaturizationField> getLazy(BlockPos center);
 
     boolean hasActiveField(BlockPos center);
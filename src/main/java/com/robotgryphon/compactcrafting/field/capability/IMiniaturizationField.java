@@ -1,12 +1,17 @@
 package com.robotgryphon.compactcrafting.field.capability;
 
 import com.robotgryphon.compactcrafting.crafting.EnumCraftingState;
+import com.robotgryphon.compactcrafting.field.CraftQueue;
+import com.robotgryphon.compactcrafting.field.FieldOutputs;
 import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
+import com.robotgryphon.compactcrafting.field.VirtualField;
 import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.Optional;
 import java.util.stream.Stream;
 
@@ -32,17 +37,97 @@ public interface IMiniaturizationField {
 
     void completeCraft();
 
+    /**
+     * Finishes the running craft and takes the next staged one, which the caller starts right away.
+     *
+     * @return The craft to start, if one was staged.
+     */
+    default Optional<CraftQueue.StagedCraft> completeCraft(World level) {
+        completeCraft();
+        return Optional.empty();
+    }
+
     EnumCraftingState getCraftingState();
 
     void doRecipeScan(World level);
 
+    /**
+     * Starts a recipe scan that may finish on a later tick. Fields without background scanning just scan here.
+     */
+    default void startRecipeScan(World level) {
+        doRecipeScan(level);
+    }
+
     void setCraftingState(EnumCraftingState state);
 
     default void tick(World level) {}
 
+    /**
+     * Gets the inventory-backed side of this field, if it supports crafting without blocks in the world.
+     */
+    default Optional<VirtualField> getVirtualField() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the crafts waiting behind the running one, if this field can stage crafts.
+     */
+    default Optional<CraftQueue> getCraftQueue() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets where this field's finished crafts go, if it can put them into inventories.
+     */
+    default Optional<FieldOutputs> getFieldOutputs() {
+        return Optional.empty();
+    }
+
+    /**
+     * Gets the game time this field next needs to tick at. Fields sleep in between, and only tick
+     * earlier if something wakes them (a block change, a catalyst landing, the field loading).
+     *
+     * @param gameTime The current game time.
+     * @return The game time to tick at, or -1 to sleep until woken.
+     */
+    default long getNextTickTime(long gameTime) {
+        return gameTime + 1;
+    }
+
     boolean isLoaded();
 
     default void checkLoaded(World world) {}
 
+    /**
+     * Gets every chunk (see {@link net.minecraft.util.math.ChunkPos#asLong}) that has to be loaded for the field to tick.
+     */
+    default long[] getRequiredChunks() {
+        return new long[0];
+    }
+
+    /**
+     * Called as one of the field's required chunks loads or unloads.
+     *
+     * @return Whether the field is loaded now.
+     */
+    default boolean setChunkLoaded(long chunk, boolean loaded) {
+        return isLoaded();
+    }
+
     void markFieldChanged(World world);
+
+    /**
+     * Marks a single position in the field as changed. Fields that track changes can use this to
+     * only re-check what the change touched.
+     */
+    default void markFieldChanged(World world, BlockPos changed) {
+        markFieldChanged(world, Collections.singleton(changed));
+    }
+
+    /**
+     * Marks a batch of positions in the field as changed; see {@link #markFieldChanged(World, BlockPos)}.
+     */
+    default void markFieldChanged(World world, Collection<BlockPos> changed) {
+        markFieldChanged(world);
+    }
 }
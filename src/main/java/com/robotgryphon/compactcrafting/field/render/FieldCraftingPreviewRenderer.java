@@ -40,7 +40,7 @@ public class FieldCraftingPreviewRenderer extends TileEntityRenderer<FieldCrafti
 
         try {
             // progress, ticks required
-            double craftProgress = tile.getProgress();
+            double craftProgress = tile.getProgress(partialTicks);
 
             long gameTime = tile.getLevel().getGameTime();
 
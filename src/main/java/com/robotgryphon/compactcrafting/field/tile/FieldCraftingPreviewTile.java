@@ -1,46 +1,119 @@
 package com.robotgryphon.compactcrafting.field.tile;
 
 import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
+import com.robotgryphon.compactcrafting.field.CraftQueue;
+import com.robotgryphon.compactcrafting.field.FieldOutputs;
+import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
 import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
 import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
-import net.minecraft.entity.item.ItemEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.CompoundNBT;
 import net.minecraft.network.NetworkManager;
 import net.minecraft.network.play.server.SUpdateTileEntityPacket;
-import net.minecraft.tileentity.ITickableTileEntity;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.ResourceLocation;
 import net.minecraft.util.math.AxisAlignedBB;
-import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.Constants;
 import net.minecraftforge.common.util.LazyOptional;
 
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import java.util.List;
+import java.util.Optional;
 
-public class FieldCraftingPreviewTile extends TileEntity implements ITickableTileEntity {
+/**
+ * Shows the recipe being crafted in a field. Crafts are timed by game time: the tile only stores when
+ * the craft started and ends, completion is a scheduled block tick, and clients work out the progress
+ * from the game time themselves, so nothing needs to tick or sync while the craft runs.
+ */
+public class FieldCraftingPreviewTile extends TileEntity {
     @Nonnull
     private LazyOptional<IMiniaturizationField> field = LazyOptional.empty();
-    private int craftingProgress = 0;
     private MiniaturizationRecipe recipe;
 
+    /**
+     * Recipe id read from NBT, resolved once the tile has a level.
+     */
+    @Nullable
+    private ResourceLocation recipeId;
+
+    private long craftStart;
+    private long craftEnd;
+
+    /**
+     * Number of copies of the recipe this craft makes.
+     */
+    private int batch = 1;
+
+    /**
+     * Progress from before crafts were timed by game time; turned into start/end times on load.
+     */
+    private int legacyProgress = -1;
+
     public FieldCraftingPreviewTile() {
         super(Registration.FIELD_CRAFTING_PREVIEW_TILE.get());
     }
 
-    public int getProgress() {
-        return this.craftingProgress;
+    /**
+     * Gets how many ticks the craft has been running, up to the recipe's crafting time.
+     */
+    public double getProgress() {
+        return getProgress(0);
+    }
+
+    /**
+     * Gets how many ticks the craft has been running, interpolated between ticks for rendering.
+     */
+    public double getProgress(float partialTicks) {
+        if (level == null)
+            return 0;
+
+        double elapsed = (level.getGameTime() - craftStart) + partialTicks;
+        return Math.max(0, Math.min(craftEnd - craftStart, elapsed));
+    }
+
+    public long getCraftStart() {
+        return craftStart;
+    }
+
+    public long getCraftEnd() {
+        return craftEnd;
+    }
+
+    public int getBatch() {
+        return batch;
     }
 
     public MiniaturizationRecipe getRecipe() {
+        if (recipe == null && recipeId != null && level != null) {
+            level.getRecipeManager()
+                    .byKey(recipeId)
+                    .filter(r -> r instanceof MiniaturizationRecipe)
+                    .ifPresent(r -> {
+                        this.recipe = (MiniaturizationRecipe) r;
+                        this.recipeId = null;
+                    });
+        }
+
         return recipe;
     }
 
-    public void setField(IMiniaturizationField field) {
+    /**
+     * Starts a craft.
+     *
+     * @param field The field running the craft.
+     * @param recipe The recipe being crafted.
+     * @param batch The number of copies the craft makes.
+     */
+    public void setField(IMiniaturizationField field, MiniaturizationRecipe recipe, int batch) {
+        this.batch = Math.max(1, batch);
         this.field = LazyOptional.of(() -> field);
 
-        this.recipe = field.getCurrentRecipe().orElse(null);
+        this.recipe = recipe;
+        this.recipeId = null;
 
         // Add invalidation listener so if the field invalidates, this block vanishes and the craft is lost
         this.field.addListener(f -> {
@@ -48,75 +121,148 @@ public class FieldCraftingPreviewTile extends TileEntity implements ITickableTil
                 level.setBlockAndUpdate(worldPosition, Blocks.AIR.defaultBlockState());
         });
 
+        if (level != null) {
+            this.craftStart = level.getGameTime();
+            this.craftEnd = craftStart + (recipe == null ? 0 : recipe.getTicks());
+            scheduleCompletion();
+        }
+
         this.setChanged();
     }
 
-    @Override
-    public AxisAlignedBB getRenderBoundingBox() {
-        return new AxisAlignedBB(worldPosition).inflate(6.0f);
+    private void scheduleCompletion() {
+        if (level == null || level.isClientSide)
+            return;
+
+        BlockState state = getBlockState();
+        int delay = (int) Math.max(1, craftEnd - level.getGameTime());
+        if (!level.getBlockTicks().hasScheduledTick(worldPosition, state.getBlock()))
+            level.getBlockTicks().scheduleTick(worldPosition, state.getBlock(), delay);
     }
 
     @Override
-    public void tick() {
-        this.craftingProgress++;
-        if (level.isClientSide) {
+    public void onLoad() {
+        super.onLoad();
+
+        if (level == null)
             return;
+
+        if (legacyProgress >= 0) {
+            MiniaturizationRecipe loaded = getRecipe();
+            this.craftStart = level.getGameTime() - legacyProgress;
+            this.craftEnd = craftStart + (loaded == null ? 0 : loaded.getTicks());
+            this.legacyProgress = -1;
         }
 
-        // TODO - Clean this up, potential for crash
-        // https://discord.com/channels/765363477186740234/851154648140218398/852552351436374066
-        if (this.craftingProgress >= recipe.getTicks()) {
-            field.ifPresent(IMiniaturizationField::completeCraft);
-
-            BlockPos center = this.worldPosition;
-            if(recipe != null) {
-                for (ItemStack is : recipe.getOutputs()) {
-                    ItemEntity itemEntity = new ItemEntity(level, center.getX() + 0.5f, center.getY() + 0.5f, center.getZ() + 0.5f, is);
-                    level.addFreshEntity(itemEntity);
-                }
-            }
+        // Scheduled ticks are saved with the chunk; this only matters for crafts saved before they were used
+        scheduleCompletion();
+    }
+
+    /**
+     * Called from the block's scheduled tick. Finishes the craft if it's time, otherwise waits for the rest of it.
+     */
+    public void tryCompleteCraft() {
+        if (level == null || level.isClientSide)
+            return;
+
+        if (level.getGameTime() < craftEnd) {
+            scheduleCompletion();
+            return;
+        }
+
+        // The field reference doesn't survive a reload; the field is centered on us, so look it up again
+        if (!field.isPresent()) {
+            level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS)
+                    .resolve()
+                    .flatMap(fields -> fields.get(worldPosition))
+                    .ifPresent(f -> this.field = LazyOptional.of(() -> f));
+        }
+
+        IMiniaturizationField f = field.orElse(null);
+        MiniaturizationRecipe crafted = getRecipe();
+        if(crafted != null) {
+            List<ItemStack> outputs = CraftingHelper.getBatchOutputs(crafted.getOutputs(), batch);
+            Optional<FieldOutputs> fieldOutputs = f == null ? Optional.empty() : f.getFieldOutputs();
+            if (fieldOutputs.isPresent())
+                fieldOutputs.get().deliver(level, f, outputs);
+            else
+                FieldOutputs.spawn(level, worldPosition, outputs);
+        }
 
-            level.setBlockAndUpdate(worldPosition, Blocks.AIR.defaultBlockState());
+        // A craft staged behind this one starts right away, without rebuilding the preview
+        CraftQueue.StagedCraft next = f == null ? null : f.completeCraft(level).orElse(null);
+        if (next != null) {
+            setField(f, next.getRecipe(), next.getBatch());
+            level.sendBlockUpdated(worldPosition, getBlockState(), getBlockState(), Constants.BlockFlags.BLOCK_UPDATE);
+            return;
         }
+
+        level.setBlockAndUpdate(worldPosition, Blocks.AIR.defaultBlockState());
+    }
+
+    @Override
+    public AxisAlignedBB getRenderBoundingBox() {
+        return new AxisAlignedBB(worldPosition).inflate(6.0f);
     }
 
     @Override
     public void load(BlockState state, CompoundNBT compound) {
         super.load(state, compound);
+        loadCraft(compound);
+    }
 
-        craftingProgress = compound.getInt("progress");
-
+    private void loadCraft(CompoundNBT compound) {
         if (compound.contains("recipe")) {
-            ResourceLocation recipeId = new ResourceLocation(compound.getString("recipe"));
-            level.getRecipeManager()
-                    .byKey(recipeId)
-                    .ifPresent(recipe -> this.recipe = (MiniaturizationRecipe) recipe);
+            ResourceLocation id = new ResourceLocation(compound.getString("recipe"));
+            if (recipe == null || !recipe.getId().equals(id)) {
+                this.recipe = null;
+                this.recipeId = id;
+            }
+        }
+
+        if (compound.contains("start")) {
+            this.craftStart = compound.getLong("start");
+            this.craftEnd = compound.getLong("end");
+        } else if (compound.contains("progress")) {
+            this.legacyProgress = compound.getInt("progress");
         }
+
+        this.batch = compound.contains("batch") ? Math.max(1, compound.getInt("batch")) : 1;
     }
 
     @Override
     public CompoundNBT save(CompoundNBT compound) {
         super.save(compound);
-        if (recipe != null) {
-            compound.putString("recipe", recipe.getId().toString());
+        return saveCraft(compound);
+    }
+
+    private CompoundNBT saveCraft(CompoundNBT compound) {
+        MiniaturizationRecipe saved = getRecipe();
+        if (saved != null) {
+            compound.putString("recipe", saved.getId().toString());
+        } else if (recipeId != null) {
+            compound.putString("recipe", recipeId.toString());
         }
 
-        compound.putInt("progress", craftingProgress);
+        compound.putLong("start", craftStart);
+        compound.putLong("end", craftEnd);
+        compound.putInt("batch", batch);
         return compound;
     }
 
     @Override
     public SUpdateTileEntityPacket getUpdatePacket() {
-        return new SUpdateTileEntityPacket(worldPosition, 0, getUpdateTag());
+        return new SUpdateTileEntityPacket(worldPosition, 0, saveCraft(new CompoundNBT()));
     }
 
     @Override
     public CompoundNBT getUpdateTag() {
-        return save(new CompoundNBT());
+        // Position and id only from the base class; the craft itself is a few values
+        return saveCraft(super.save(new CompoundNBT()));
     }
 
     @Override
     public void onDataPacket(NetworkManager net, SUpdateTileEntityPacket packet) {
-        load(getBlockState(), packet.getTag());
+        loadCraft(packet.getTag());
     }
 }
@@ -0,0 +1,66 @@
+package com.robotgryphon.compactcrafting.network;
+
+import com.robotgryphon.compactcrafting.client.ClientPacketHandler;
+import net.minecraft.network.PacketBuffer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.api.distmarker.Dist;
+import net.minecraftforge.fml.DistExecutor;
+import net.minecraftforge.fml.network.NetworkEvent;
+
+import java.util.BitSet;
+import java.util.function.Supplier;
+
+/**
+ * Sent when a field's blocks are cleared for a craft. Carries which blocks were cleared, so the client
+ * can play the collapse effects itself instead of the server sending a particle packet per block.
+ */
+public class FieldCollapsePacket {
+
+    private final BlockPos origin;
+    private final int sizeX, sizeY, sizeZ;
+
+    /**
+     * Cleared positions relative to the origin; see {@link com.robotgryphon.compactcrafting.util.BlockSpaceUtil#getFlatIndex}.
+     */
+    private final BitSet cleared;
+
+    public FieldCollapsePacket(BlockPos origin, int sizeX, int sizeY, int sizeZ, BitSet cleared) {
+        this.origin = origin;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.cleared = cleared;
+    }
+
+    public static void handle(FieldCollapsePacket message, Supplier<NetworkEvent.Context> context) {
+        NetworkEvent.Context ctx = context.get();
+
+        ctx.enqueueWork(() -> {
+            DistExecutor.unsafeCallWhenOn(Dist.CLIENT, () -> () -> {
+                ClientPacketHandler.handleFieldCollapse(message.origin, message.sizeX, message.sizeY, message.sizeZ, message.cleared);
+                return null;
+            });
+        });
+
+        ctx.setPacketHandled(true);
+    }
+
+    public static void encode(FieldCollapsePacket pkt, PacketBuffer buf) {
+        buf.writeBlockPos(pkt.origin);
+        buf.writeVarInt(pkt.sizeX);
+        buf.writeVarInt(pkt.sizeY);
+        buf.writeVarInt(pkt.sizeZ);
+        buf.writeLongArray(pkt.cleared.toLongArray());
+    }
+
+    public static FieldCollapsePacket decode(PacketBuffer buf) {
+        BlockPos origin = buf.readBlockPos();
+        int sizeX = buf.readVarInt();
+        int sizeY = buf.readVarInt();
+        int sizeZ = buf.readVarInt();
+
+        // Never more than one bit per block in the area
+        long[] bits = buf.readLongArray(null, ((sizeX * sizeY * sizeZ) >> 6) + 1);
+        return new FieldCollapsePacket(origin, sizeX, sizeY, sizeZ, BitSet.valueOf(bits));
+    }
+}
@@ -11,7 +11,7 @@ import java.util.Optional;
 
 public class NetworkHandler {
     private static int index = 0;
-    private static final String PROTOCOL_VERSION = "1";
+    private static final String PROTOCOL_VERSION = "2";
     public static final SimpleChannel MAIN_CHANNEL = NetworkRegistry.newSimpleChannel(
             new ResourceLocation(CompactCrafting.MOD_ID, "main"),
             () -> PROTOCOL_VERSION,
@@ -27,5 +27,9 @@ public class NetworkHandler {
         MAIN_CHANNEL.registerMessage(index++, FieldDeactivatedPacket.class,
                 FieldDeactivatedPacket::encode, FieldDeactivatedPacket::decode,
                 FieldDeactivatedPacket::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
+
+        MAIN_CHANNEL.registerMessage(index++, FieldCollapsePacket.class,
+                FieldCollapsePacket::encode, FieldCollapsePacket::decode,
+                FieldCollapsePacket::handle, Optional.of(NetworkDirection.PLAY_TO_CLIENT));
     }
 }
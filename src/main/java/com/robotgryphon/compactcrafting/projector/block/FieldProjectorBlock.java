@@ -215,6 +215,7 @@ public class FieldProjectorBlock extends Block {
                     .ifPresent(fields -> {
                         fields.get(fieldCenter).ifPresent(field -> {
                             field.checkLoaded(level);
+                            fields.wakeField(field);
                         });
                     });
 
@@ -73,7 +73,7 @@ public class FieldProjectorRenderer extends TileEntityRenderer<FieldProjectorTil
         Optional<AxisAlignedBB> fieldBounds = tile.getFieldBounds();
 
         fieldBounds.ifPresent(bounds -> {
-            float scale = (float) getCraftingScale(tile.getLevel(), new BlockPos(bounds.getCenter()));
+            float scale = (float) getCraftingScale(tile.getLevel(), new BlockPos(bounds.getCenter()), partialTicks);
 
             bounds = bounds.deflate(1 - scale);
 
@@ -108,16 +108,16 @@ public class FieldProjectorRenderer extends TileEntityRenderer<FieldProjectorTil
      * @param fieldCenter
      * @return 0 is done, 1 is not yet started.
      */
-    private double getCraftingScale(IWorldReader level, BlockPos fieldCenter) {
+    private double getCraftingScale(IWorldReader level, BlockPos fieldCenter, float partialTicks) {
         BlockState centerState = level.getBlockState(fieldCenter);
         if (centerState.getBlock() instanceof FieldCraftingPreviewBlock) {
             FieldCraftingPreviewTile preview = (FieldCraftingPreviewTile) level.getBlockEntity(fieldCenter);
 
             // No preview tile found, not actually crafting rn
-            if (preview == null)
+            if (preview == null || preview.getRecipe() == null)
                 return 1;
 
-            double craftProgress = Math.max(0, preview.getProgress());
+            double craftProgress = Math.max(0, preview.getProgress(partialTicks));
             double requiredTime = Math.max(1, preview.getRecipe().getTicks());
 
             return Math.min(1, Math.max(0.1d, requiredTime - craftProgress - (1.8 * Math.sin(craftProgress + requiredTime))));
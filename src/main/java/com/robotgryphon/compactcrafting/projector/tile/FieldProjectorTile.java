@@ -1,8 +1,10 @@
 package com.robotgryphon.compactcrafting.projector.tile;
 
 import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.field.FieldOutputs;
 import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
 import com.robotgryphon.compactcrafting.field.MiniaturizationField;
+import com.robotgryphon.compactcrafting.field.VirtualField;
 import com.robotgryphon.compactcrafting.field.capability.CapabilityActiveWorldFields;
 import com.robotgryphon.compactcrafting.field.capability.CapabilityMiniaturizationField;
 import com.robotgryphon.compactcrafting.field.capability.IActiveWorldFields;
@@ -20,6 +22,8 @@ import net.minecraft.util.math.BlockPos;
 import net.minecraftforge.common.capabilities.Capability;
 import net.minecraftforge.common.util.LazyOptional;
 import net.minecraftforge.fml.network.PacketDistributor;
+import net.minecraftforge.items.CapabilityItemHandler;
+import net.minecraftforge.items.IItemHandler;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -33,6 +37,11 @@ public class FieldProjectorTile extends TileEntity {
     protected LazyOptional<IMiniaturizationField> fieldCap = LazyOptional.empty();
     protected LazyOptional<IActiveWorldFields> levelFields = LazyOptional.empty();
 
+    /**
+     * The field's virtual inventory. One optional per field, so whatever cached it hears when the field goes away.
+     */
+    private LazyOptional<IItemHandler> itemHandler = LazyOptional.empty();
+
     public FieldProjectorTile() {
         super(Registration.FIELD_PROJECTOR_TILE.get());
     }
@@ -75,11 +84,20 @@ public class FieldProjectorTile extends TileEntity {
             this.levelFields = level.getCapability(CapabilityActiveWorldFields.ACTIVE_WORLD_FIELDS);
             levelFields.ifPresent(af -> {
                 if (!af.hasActiveField(center)) {
-                    af.registerField(MiniaturizationField.fromSizeAndCenter(fieldSize, center));
+                    MiniaturizationField field = MiniaturizationField.fromSizeAndCenter(fieldSize, center);
+
+                    // Neighbouring chunks may have loaded before the field existed to hear about it
+                    field.checkLoaded(level);
+                    af.registerField(field);
                 }
 
                 this.fieldCap = af.getLazy(center);
+
+                // Anything going into the virtual field wakes it up to look for a craft
+                fieldCap.ifPresent(f -> f.getVirtualField().ifPresent(v -> v.setChangeListener(() -> af.wakeField(f))));
             });
+
+            updateItemHandler();
         }
     }
 
@@ -89,6 +107,16 @@ public class FieldProjectorTile extends TileEntity {
 
         // Invalidate field
         invalidateField();
+        itemHandler.invalidate();
+    }
+
+    private void updateItemHandler() {
+        itemHandler.invalidate();
+        this.itemHandler = fieldCap.resolve()
+                .flatMap(IMiniaturizationField::getVirtualField)
+                .map(VirtualField::getInventory)
+                .map(inventory -> LazyOptional.of(() -> inventory))
+                .orElse(LazyOptional.empty());
     }
 
     public void invalidateField() {
@@ -110,6 +138,11 @@ public class FieldProjectorTile extends TileEntity {
             if (level == null || level.isClientSide)
                 return;
 
+            // Items the field holds would go away with it
+            f.getFieldOutputs().ifPresent(o -> o.dropBuffer(level, fieldCenter));
+            f.getVirtualField().ifPresent(v -> v.dropContents(level, fieldCenter));
+            f.getCraftQueue().ifPresent(q -> FieldOutputs.spawn(level, fieldCenter, q.drain(level.getRecipeManager())));
+
             PacketDistributor.PacketTarget trk = PacketDistributor.TRACKING_CHUNK
                     .with(() -> level.getChunkAt(this.worldPosition));
 
@@ -118,6 +151,8 @@ public class FieldProjectorTile extends TileEntity {
         });
 
         this.fieldCap = LazyOptional.empty();
+        itemHandler.invalidate();
+        this.itemHandler = LazyOptional.empty();
         this.setChanged();
     }
 
@@ -126,7 +161,11 @@ public class FieldProjectorTile extends TileEntity {
         this.fieldCap = field;
         field.addListener(f -> {
             this.fieldCap = LazyOptional.empty();
+            itemHandler.invalidate();
+            this.itemHandler = LazyOptional.empty();
         });
+
+        updateItemHandler();
     }
 
     @Nonnull
@@ -135,6 +174,10 @@ public class FieldProjectorTile extends TileEntity {
         if (cap == CapabilityMiniaturizationField.MINIATURIZATION_FIELD)
             return fieldCap.cast();
 
+        // Virtual field mode: pipes feed recipes in and take outputs out without anything built in the world
+        if (cap == CapabilityItemHandler.ITEM_HANDLER_CAPABILITY && itemHandler.isPresent())
+            return itemHandler.cast();
+
         return super.getCapability(cap, side);
     }
 
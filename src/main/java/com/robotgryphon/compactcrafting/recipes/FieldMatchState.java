@@ -0,0 +1,98 @@
+package com.robotgryphon.compactcrafting.recipes;
+
+import com.robotgryphon.compactcrafting.field.FieldSnapshot;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeDiscriminationTable;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeTemplate;
+import net.minecraft.util.math.AxisAlignedBB;
+
+import java.util.BitSet;
+import java.util.Optional;
+
+/**
+ * Remembers how far matching a field got: for every layer, which recipe orientations (entries in a
+ * {@link RecipeDiscriminationTable}) match that layer. When a few blocks change only the layers they
+ * are on have to be walked again.
+ *
+ * Only valid while the field's filled bounds stay the same; a change in the filled area needs a
+ * fresh state.
+ */
+public class FieldMatchState {
+
+    private final RecipeDiscriminationTable table;
+    private final AxisAlignedBB filledBounds;
+
+    /**
+     * Per layer, the entries that match it.
+     */
+    private final BitSet[] layers;
+
+    public FieldMatchState(RecipeDiscriminationTable table, FieldSnapshot snapshot) {
+        this.table = table;
+        this.filledBounds = snapshot.getFilledBounds();
+        this.layers = new BitSet[table.getSizeY()];
+
+        for (int layer = 0; layer < layers.length; layer++)
+            layers[layer] = table.matchLayer(snapshot, filledBounds, layer);
+    }
+
+    private FieldMatchState(FieldMatchState original) {
+        this.table = original.table;
+        this.filledBounds = original.filledBounds;
+
+        // Layer sets are never changed in place, only replaced, so they can be shared
+        this.layers = original.layers.clone();
+    }
+
+    /**
+     * Copies this state, so it can be updated without touching the original.
+     */
+    public FieldMatchState copy() {
+        return new FieldMatchState(this);
+    }
+
+    public AxisAlignedBB getFilledBounds() {
+        return filledBounds;
+    }
+
+    /**
+     * Re-walks the layers that changed.
+     *
+     * @param snapshot The updated field contents; must have the same filled bounds as this state.
+     * @param dirtyLayers One bit per layer (Y offset from the bottom of the filled bounds) that changed.
+     */
+    public void update(FieldSnapshot snapshot, long dirtyLayers) {
+        for (int layer = 0; layer < layers.length; layer++) {
+            if ((dirtyLayers & (1L << layer)) != 0)
+                layers[layer] = table.matchLayer(snapshot, filledBounds, layer);
+        }
+    }
+
+    /**
+     * Finds the first recipe with an orientation that matches every layer.
+     *
+     * @param snapshot The field contents the state was last updated with.
+     */
+    public Optional<MiniaturizationRecipe> findMatch(FieldSnapshot snapshot) {
+        BitSet matching = new BitSet(table.size());
+        matching.set(0, table.size());
+        for (BitSet layer : layers)
+            matching.and(layer);
+
+        for (int e = matching.nextSetBit(0); e >= 0; e = matching.nextSetBit(e + 1)) {
+            MiniaturizationRecipe recipe = table.getRecipe(e);
+            if (!recipe.fitsInFieldSize(snapshot.getFieldSize()))
+                continue;
+
+            // Positions all match; only layers with their own logic are left to check
+            RecipeTemplate template = table.getTemplate(e);
+            if (recipe.getCompiled().getVerifiedLayers().length == 0)
+                return Optional.of(recipe);
+
+            int[] cells = recipe.getCompiled().resolve(snapshot, filledBounds);
+            if (recipe.checkVerifiedLayers(snapshot, template.getRotation(), filledBounds, cells))
+                return Optional.of(recipe);
+        }
+
+        return Optional.empty();
+    }
+}
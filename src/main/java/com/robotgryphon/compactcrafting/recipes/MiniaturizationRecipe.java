@@ -14,13 +14,15 @@ import com.robotgryphon.compactcrafting.api.layers.RecipeLayerType;
 import com.robotgryphon.compactcrafting.api.layers.dim.IDynamicSizedRecipeLayer;
 import com.robotgryphon.compactcrafting.api.layers.dim.IFixedSizedRecipeLayer;
 import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
+import com.robotgryphon.compactcrafting.field.FieldSnapshot;
 import com.robotgryphon.compactcrafting.field.MiniaturizationField;
+import com.robotgryphon.compactcrafting.recipes.compiled.CompiledRecipe;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeTemplate;
 import com.robotgryphon.compactcrafting.recipes.components.EmptyBlockComponent;
 import com.robotgryphon.compactcrafting.recipes.components.RecipeComponentTypeCodec;
 import com.robotgryphon.compactcrafting.recipes.exceptions.MiniaturizationRecipeException;
-import com.robotgryphon.compactcrafting.recipes.layers.RecipeLayerBlocks;
+import com.robotgryphon.compactcrafting.recipes.layers.FlatRecipeLayerBlocks;
 import com.robotgryphon.compactcrafting.recipes.layers.RecipeLayerTypeCodec;
-import com.robotgryphon.compactcrafting.recipes.layers.RecipeLayerUtil;
 import com.robotgryphon.compactcrafting.recipes.setup.RecipeBase;
 import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
 import net.minecraft.block.BlockState;
@@ -51,6 +53,11 @@ public class MiniaturizationRecipe extends RecipeBase {
     private AxisAlignedBB dimensions;
     private Map<String, Integer> cachedComponentTotals;
 
+    /**
+     * Dense form of the layers, rebuilt any time the recipe dimensions change.
+     */
+    private CompiledRecipe compiled;
+
     /**
      * Contains a mapping of all known components in the recipe.
      * Vanilla style; C = CHARCOAL_BLOCK
@@ -175,10 +182,16 @@ public class MiniaturizationRecipe extends RecipeBase {
                 }
             }
 
-            this.dimensions = new AxisAlignedBB(Vector3d.ZERO, new Vector3d(x, height, z));
+            applyDimensions(new AxisAlignedBB(Vector3d.ZERO, new Vector3d(x, height, z)));
         }
+    }
 
+    private void applyDimensions(AxisAlignedBB dimensions) {
+        this.dimensions = dimensions;
         updateFluidLayerDimensions();
+
+        // Layer contents depend on the dimensions, so the compiled templates need to follow them
+        this.compiled = CompiledRecipe.compile(this);
     }
 
     private void updateFluidLayerDimensions() {
@@ -204,53 +217,63 @@ public class MiniaturizationRecipe extends RecipeBase {
     }
 
     public boolean matches(IWorldReader world, MiniaturizationField field) {
-        if (!fitsInFieldSize(field.getFieldSize()))
+        return matches(FieldSnapshot.capture(world, field));
+    }
+
+    /**
+     * Checks the recipe against a snapshot of a field's contents. Everything is read from the
+     * snapshot, so one snapshot can be shared by every recipe checked during a scan.
+     *
+     * @param snapshot The field contents.
+     * @return True if the field contents match this recipe in any rotation.
+     */
+    public boolean matches(FieldSnapshot snapshot) {
+        if (!fitsInFieldSize(snapshot.getFieldSize()))
+            return false;
+
+        // Block counts are rotation-independent, so most wrong recipes stop here
+        if (!compiled.canMatch(snapshot))
             return false;
 
         // We know that the recipe will at least fit inside the current projection field
-        AxisAlignedBB filledBounds = field.getFilledBounds(world);
-
-        Rotation[] validRotations = new Rotation[]{
-                Rotation.NONE,
-                Rotation.CLOCKWISE_90,
-                Rotation.CLOCKWISE_180,
-                Rotation.COUNTERCLOCKWISE_90
-        };
-
-        for (Rotation rot : validRotations) {
-            boolean matchesRot = checkRotation(world, rot, filledBounds);
-            if (matchesRot)
+        AxisAlignedBB filledBounds = snapshot.getFilledBounds();
+
+        int sizeX = (int) Math.ceil(filledBounds.getXsize());
+        int sizeY = (int) Math.ceil(filledBounds.getYsize());
+        int sizeZ = (int) Math.ceil(filledBounds.getZsize());
+
+        // Read the field once; every rotation is checked against the same resolved cells
+        int[] cells = null;
+        for (RecipeTemplate template : compiled.getTemplates()) {
+            if (!template.hasSize(sizeX, sizeY, sizeZ))
+                continue;
+
+            if (cells == null)
+                cells = compiled.resolve(snapshot, filledBounds);
+
+            if (template.matches(sizeX, sizeY, sizeZ, cells) && checkVerifiedLayers(snapshot, template.getRotation(), filledBounds, cells))
                 return true;
         }
 
         return false;
     }
 
-    private boolean checkRotation(IWorldReader world, Rotation rot, AxisAlignedBB filledBounds) {
-        // Check the recipe layer by layer
-
-        int maxY = (int) dimensions.getYsize();
-        for (int offset = 0; offset < maxY; offset++) {
+    /**
+     * Runs the layer-specific match logic for any layers the compiled templates cannot fully describe.
+     */
+    boolean checkVerifiedLayers(FieldSnapshot snapshot, Rotation rot, AxisAlignedBB filledBounds, int[] cells) {
+        int layerArea = (int) Math.ceil(filledBounds.getXsize()) * (int) Math.ceil(filledBounds.getZsize());
+        for (int offset : compiled.getVerifiedLayers()) {
             Optional<IRecipeLayer> layer = getLayer(offset);
-
-            // If we have no layer definition do lighter processing
-            // TODO: Consider changing the layers to a map so we can make air layers null/nonexistent
-            if (!layer.isPresent()) {
-                // We're being safe here - if there's no layer definition we assume the layer is all-air
+            if (!layer.isPresent())
                 return false;
-            }
 
             AxisAlignedBB bounds = BlockSpaceUtil.getLayerBoundsByYOffset(filledBounds, offset);
-            IRecipeLayerBlocks blocks = RecipeLayerBlocks.create(world, this, bounds);
-
-            if(rot != Rotation.NONE)
-                blocks = RecipeLayerUtil.rotate(blocks, rot);
+            // Views over the cells already resolved for the template check; rotating one copies nothing
+            IRecipeLayerBlocks blocks = new FlatRecipeLayerBlocks(compiled, snapshot, bounds, cells, offset * layerArea)
+                    .rotate(rot);
 
-            IRecipeLayer targetLayer = layer.get();
-
-            boolean layerMatched = targetLayer.matches(blocks);
-
-            if(!layerMatched)
+            if(!layer.get().matches(blocks))
                 return false;
         }
 
@@ -303,14 +326,8 @@ public class MiniaturizationRecipe extends RecipeBase {
     }
 
     public Optional<String> getRecipeComponentKey(BlockState state) {
-        // TODO - This might conflict with multiple matching states, consider handling this in the codec loading process
-        for (String comp : this.blockComponents.keySet()) {
-            IRecipeBlockComponent sComp = blockComponents.get(comp);
-            if(sComp.matches(state))
-                return Optional.of(comp);
-        }
-
-        return Optional.empty();
+        // States matching more than one component resolve to the first key in sorted order
+        return compiled.getComponentKey(compiled.resolve(state));
     }
 
     public boolean fitsInDimensions(AxisAlignedBB bounds) {
@@ -343,8 +360,7 @@ public class MiniaturizationRecipe extends RecipeBase {
     public void setFluidDimensions(AxisAlignedBB dimensions) throws MiniaturizationRecipeException {
         boolean hasRigidLayer = this.layers.values().stream().anyMatch(layer -> layer instanceof IFixedSizedRecipeLayer);
         if (!hasRigidLayer) {
-            this.dimensions = dimensions;
-            updateFluidLayerDimensions();
+            applyDimensions(dimensions);
         } else {
             CompactCrafting.LOGGER.warn("Tried to set fluid dimensions when a rigid layer is present in the layer set.", new MiniaturizationRecipeException("no. bad."));
         }
@@ -375,6 +391,10 @@ public class MiniaturizationRecipe extends RecipeBase {
         this.id = recipeId;
     }
 
+    public CompiledRecipe getCompiled() {
+        return compiled;
+    }
+
     public Map<String, IRecipeBlockComponent> getBlockComponents() {
         return blockComponents;
     }
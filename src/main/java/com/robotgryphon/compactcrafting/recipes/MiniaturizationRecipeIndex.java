@@ -0,0 +1,233 @@
+package com.robotgryphon.compactcrafting.recipes;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.recipes.compiled.RecipeDiscriminationTable;
+import com.robotgryphon.compactcrafting.recipes.setup.RecipeBase;
+import net.minecraft.item.Item;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.util.math.AxisAlignedBB;
+
+import javax.annotation.Nullable;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lookup of every loaded miniaturization recipe, bucketed by footprint and catalyst so a field scan
+ * only has to look at recipes that could possibly match what's in the field.
+ *
+ * The index is immutable; a datapack reload bumps the generation and the next lookup builds a
+ * fresh index and swaps it in whole.
+ */
+public final class MiniaturizationRecipeIndex {
+
+    private static volatile MiniaturizationRecipeIndex current;
+    private static volatile int generation = 0;
+
+    private final RecipeManager source;
+    private final int builtGeneration;
+
+    private final List<MiniaturizationRecipe> all;
+
+    /**
+     * Recipes keyed by their normalized footprint; see {@link #getShapeKey(int, int, int)}.
+     */
+    private final Map<Long, List<MiniaturizationRecipe>> byShape;
+    private final Map<Item, List<MiniaturizationRecipe>> byCatalyst;
+
+    /**
+     * Discrimination tables by exact (unsorted) field size, built the first time a field of that size is scanned.
+     */
+    private final Map<Long, RecipeDiscriminationTable> matchTables = new ConcurrentHashMap<>();
+
+    private MiniaturizationRecipeIndex(RecipeManager source, int builtGeneration) {
+        this.source = source;
+        this.builtGeneration = builtGeneration;
+        this.all = new ArrayList<>();
+        this.byShape = new HashMap<>();
+        this.byCatalyst = new HashMap<>();
+
+        for (RecipeBase r : source.getAllRecipesFor(Registration.MINIATURIZATION_RECIPE_TYPE)) {
+            if (!(r instanceof MiniaturizationRecipe))
+                continue;
+
+            MiniaturizationRecipe recipe = (MiniaturizationRecipe) r;
+            all.add(recipe);
+
+            AxisAlignedBB dims = recipe.getDimensions();
+            byShape.computeIfAbsent(getShapeKey(dims), k -> new ArrayList<>()).add(recipe);
+            byCatalyst.computeIfAbsent(recipe.getCatalyst().getItem(), k -> new ArrayList<>()).add(recipe);
+        }
+    }
+
+    /**
+     * Gets the index for the given recipe manager, building it first if recipes were reloaded
+     * since it was last built.
+     *
+     * @param manager The recipe manager to index.
+     * @return The current index.
+     */
+    public static MiniaturizationRecipeIndex get(RecipeManager manager) {
+        MiniaturizationRecipeIndex index = current;
+        if (index != null && index.source == manager && index.builtGeneration == generation)
+            return index;
+
+        synchronized (MiniaturizationRecipeIndex.class) {
+            index = current;
+            if (index != null && index.source == manager && index.builtGeneration == generation)
+                return index;
+
+            // A different manager means a reload happened that we weren't told about; count it
+            if (index != null && index.source != manager && index.builtGeneration == generation)
+                generation++;
+
+            MiniaturizationRecipeIndex rebuilt = new MiniaturizationRecipeIndex(manager, generation);
+            CompactCrafting.LOGGER.debug("Rebuilt miniaturization recipe index (generation {}): {} recipes, {} shapes, {} symmetric rotations skipped.",
+                    rebuilt.builtGeneration, rebuilt.all.size(), rebuilt.byShape.size(), rebuilt.getSkippedRotations());
+
+            current = rebuilt;
+            return rebuilt;
+        }
+    }
+
+    /**
+     * Gets the most recently built index without building one, for callers with no recipe manager
+     * to hand. It may be a generation behind until the next {@link #get(RecipeManager)}.
+     *
+     * @return The index, or null if none has been built since the server started.
+     */
+    @Nullable
+    public static MiniaturizationRecipeIndex getCurrent() {
+        return current;
+    }
+
+    /**
+     * Marks the current index as stale. Called when datapacks are reloaded.
+     */
+    public static synchronized void invalidate() {
+        generation++;
+    }
+
+    /**
+     * Drops the index entirely, so it doesn't keep a stopped server's recipes around.
+     */
+    public static synchronized void clear() {
+        generation++;
+        current = null;
+    }
+
+    /**
+     * Clears the cached block state lookups of every indexed recipe. Called when tags are reloaded.
+     */
+    public static void clearComponentCaches() {
+        MiniaturizationRecipeIndex index = current;
+        if (index == null)
+            return;
+
+        for (MiniaturizationRecipe recipe : index.all)
+            recipe.getCompiled().clearStateCache();
+
+        for (RecipeDiscriminationTable table : index.matchTables.values())
+            table.clearCache();
+    }
+
+    /**
+     * Gets the current recipe generation. Anything holding a recipe reference from an older
+     * generation should let it go and look it up again.
+     */
+    public static int getCurrentGeneration() {
+        return generation;
+    }
+
+    public static boolean isStale(int recipeGeneration) {
+        return recipeGeneration != generation;
+    }
+
+    /**
+     * Builds a key for a footprint. X and Z are sorted so all rotations of a recipe share a key.
+     */
+    public static long getShapeKey(int x, int y, int z) {
+        int small = Math.min(x, z);
+        int large = Math.max(x, z);
+        return ((long) small << 42) | ((long) large << 21) | y;
+    }
+
+    public static long getShapeKey(AxisAlignedBB bounds) {
+        return getShapeKey(
+                (int) Math.ceil(bounds.getXsize()),
+                (int) Math.ceil(bounds.getYsize()),
+                (int) Math.ceil(bounds.getZsize()));
+    }
+
+    public int getGeneration() {
+        return builtGeneration;
+    }
+
+    public Collection<MiniaturizationRecipe> getAll() {
+        return Collections.unmodifiableList(all);
+    }
+
+    /**
+     * Gets every recipe that has the same footprint as the given (filled) bounds, in any rotation.
+     *
+     * @param filledBounds The filled bounds of a field.
+     * @return The recipes that could match the field.
+     */
+    public Collection<MiniaturizationRecipe> getCandidates(AxisAlignedBB filledBounds) {
+        List<MiniaturizationRecipe> shaped = byShape.get(getShapeKey(filledBounds));
+        return shaped == null ? Collections.emptyList() : Collections.unmodifiableList(shaped);
+    }
+
+    /**
+     * Gets the discrimination table for every recipe orientation that exactly fits the given (filled) bounds.
+     *
+     * @param filledBounds The filled bounds of a field.
+     * @return The table; empty if no recipe has that footprint.
+     */
+    public RecipeDiscriminationTable getMatchTable(AxisAlignedBB filledBounds) {
+        int x = (int) Math.ceil(filledBounds.getXsize());
+        int y = (int) Math.ceil(filledBounds.getYsize());
+        int z = (int) Math.ceil(filledBounds.getZsize());
+
+        long key = ((long) x << 42) | ((long) z << 21) | y;
+        return matchTables.computeIfAbsent(key, k -> new RecipeDiscriminationTable(x, y, z, getCandidates(filledBounds)));
+    }
+
+    public Collection<MiniaturizationRecipe> getCandidates(AxisAlignedBB filledBounds, Item catalyst) {
+        List<MiniaturizationRecipe> shaped = byShape.get(getShapeKey(filledBounds));
+        if (shaped == null)
+            return Collections.emptyList();
+
+        List<MiniaturizationRecipe> matching = new ArrayList<>();
+        for (MiniaturizationRecipe recipe : shaped) {
+            if (recipe.getCatalyst().getItem() == catalyst)
+                matching.add(recipe);
+        }
+
+        return matching;
+    }
+
+    public Collection<MiniaturizationRecipe> getRecipesForCatalyst(Item catalyst) {
+        List<MiniaturizationRecipe> recipes = byCatalyst.get(catalyst);
+        return recipes == null ? Collections.emptyList() : Collections.unmodifiableList(recipes);
+    }
+
+    public boolean isCatalyst(Item item) {
+        return byCatalyst.containsKey(item);
+    }
+
+    /**
+     * Gets the total number of rotations skipped across all indexed recipes because of symmetry.
+     */
+    public int getSkippedRotations() {
+        int skipped = 0;
+        for (MiniaturizationRecipe recipe : all)
+            skipped += recipe.getCompiled().getSkippedRotations();
+
+        return skipped;
+    }
+
+    public int size() {
+        return all.size();
+    }
+}
@@ -0,0 +1,388 @@
+package com.robotgryphon.compactcrafting.recipes.compiled;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.api.components.IRecipeBlockComponent;
+import com.robotgryphon.compactcrafting.api.layers.IAnalyticRecipeLayer;
+import com.robotgryphon.compactcrafting.api.layers.IRecipeLayer;
+import com.robotgryphon.compactcrafting.field.FieldSnapshot;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.components.BlockComponent;
+import com.robotgryphon.compactcrafting.recipes.components.EmptyBlockComponent;
+import com.robotgryphon.compactcrafting.recipes.layers.MixedComponentRecipeLayer;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.Rotation;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dense, palette-indexed form of a {@link MiniaturizationRecipe}, built once whenever the recipe's
+ * dimensions are set. Holds one {@link RecipeTemplate} per rotation so matching a field is a flat
+ * array comparison instead of per-layer map lookups.
+ */
+public class CompiledRecipe {
+
+    /**
+     * Palette index used for positions that do not hold any of the recipe's components.
+     */
+    public static final int NO_COMPONENT = 0;
+
+    private static final Rotation[] ROTATIONS = new Rotation[]{
+            Rotation.NONE,
+            Rotation.CLOCKWISE_90,
+            Rotation.CLOCKWISE_180,
+            Rotation.COUNTERCLOCKWISE_90
+    };
+
+    /**
+     * Component keys, sorted. Index 0 is reserved for {@link #NO_COMPONENT}.
+     */
+    private final String[] palette;
+    private final List<Optional<String>> paletteKeys;
+    private final IRecipeBlockComponent[] components;
+    private final Map<String, Integer> paletteIndices;
+
+    /**
+     * Distinct orientations only; rotations that produce the same cells as an earlier one are dropped.
+     */
+    private final RecipeTemplate[] templates;
+
+    /**
+     * Layers (by Y offset) that are not one of the built-in layer types; these still have their own
+     * {@link IRecipeLayer#matches} logic checked after the template matches.
+     */
+    private final int[] verifiedLayers;
+
+    /**
+     * Number of cells requiring each component, by palette index. Same numbers as
+     * {@link MiniaturizationRecipe#getRecipeComponentTotals()} for the built-in layers.
+     */
+    private final int[] componentTotals;
+
+    /**
+     * Per layer, the fewest and most non-air blocks a matching field can have.
+     */
+    private final int[] layerMinFilled;
+    private final int[] layerMaxFilled;
+
+    /**
+     * Palette index for every state resolved so far, shared by scans on any thread. States don't
+     * override equals/hashCode, so the map compares them by reference; a resolve is a single hash
+     * probe once the state has been seen.
+     */
+    private final Map<BlockState, Integer> stateCache = new ConcurrentHashMap<>();
+
+    private CompiledRecipe(String[] palette, IRecipeBlockComponent[] components, Map<String, Integer> paletteIndices,
+                           RecipeTemplate[] templates, int[] verifiedLayers,
+                           int[] componentTotals, int[] layerMinFilled, int[] layerMaxFilled) {
+        this.palette = palette;
+
+        // Built once so key lookups during matching don't allocate
+        List<Optional<String>> keys = new ArrayList<>(palette.length);
+        for (String key : palette)
+            keys.add(Optional.ofNullable(key));
+        this.paletteKeys = Collections.unmodifiableList(keys);
+        this.components = components;
+        this.paletteIndices = paletteIndices;
+        this.templates = templates;
+        this.verifiedLayers = verifiedLayers;
+        this.componentTotals = componentTotals;
+        this.layerMinFilled = layerMinFilled;
+        this.layerMaxFilled = layerMaxFilled;
+    }
+
+    public static CompiledRecipe compile(MiniaturizationRecipe recipe) {
+        List<String> keys = new ArrayList<>(recipe.getComponentKeys());
+        Collections.sort(keys);
+
+        String[] palette = new String[keys.size() + 1];
+        IRecipeBlockComponent[] components = new IRecipeBlockComponent[keys.size() + 1];
+        Map<String, Integer> indices = new HashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            String key = keys.get(i);
+            palette[i + 1] = key;
+            components[i + 1] = recipe.getBlockComponents().get(key);
+            indices.put(key, i + 1);
+        }
+
+        AxisAlignedBB dimensions = recipe.getDimensions();
+        int sizeX = (int) Math.ceil(dimensions.getXsize());
+        int sizeY = (int) Math.ceil(dimensions.getYsize());
+        int sizeZ = (int) Math.ceil(dimensions.getZsize());
+
+        // Unrotated cells, straight from the layer definitions
+        int[] base = new int[sizeX * sizeY * sizeZ];
+        List<Integer> verified = new ArrayList<>();
+        for (int y = 0; y < sizeY; y++) {
+            Optional<IRecipeLayer> layer = recipe.getLayer(y);
+            if (!layer.isPresent())
+                continue;
+
+            IRecipeLayer l = layer.get();
+            if (!isBuiltInLayer(l))
+                verified.add(y);
+
+            // Analytic layers describe themselves by index; no position lookups needed
+            if (l instanceof IAnalyticRecipeLayer) {
+                IAnalyticRecipeLayer analytic = (IAnalyticRecipeLayer) l;
+                int index = indices.getOrDefault(analytic.getComponent(), NO_COMPONENT);
+                for (int z = 0; z < sizeZ; z++) {
+                    for (int x = 0; x < sizeX; x++) {
+                        base[BlockSpaceUtil.getFlatIndex(x, y, z, sizeX, sizeZ)] =
+                                analytic.isRequired(x, z, sizeX, sizeZ) ? index : NO_COMPONENT;
+                    }
+                }
+
+                continue;
+            }
+
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    Integer index = l.getComponentForPosition(new BlockPos(x, 0, z))
+                            .map(indices::get)
+                            .orElse(null);
+
+                    base[BlockSpaceUtil.getFlatIndex(x, y, z, sizeX, sizeZ)] = index == null ? NO_COMPONENT : index;
+                }
+            }
+        }
+
+        // Count requirements, used to throw out fields before any positional checks
+        BlockState air = Blocks.AIR.defaultBlockState();
+        int[] totals = new int[palette.length];
+        int[] layerMin = new int[sizeY];
+        int[] layerMax = new int[sizeY];
+        for (int y = 0; y < sizeY; y++) {
+            layerMax[y] = sizeX * sizeZ;
+            for (int i = y * sizeX * sizeZ; i < (y + 1) * sizeX * sizeZ; i++) {
+                int index = base[i];
+                totals[index]++;
+
+                if (index == NO_COMPONENT)
+                    continue;
+
+                IRecipeBlockComponent component = components[index];
+                if (!component.matches(air))
+                    layerMin[y]++;
+                else if (component instanceof EmptyBlockComponent)
+                    layerMax[y]--;
+            }
+        }
+
+        // Symmetric recipes produce the same template for several rotations; only keep the distinct ones.
+        // Layers with their own match logic may still care about rotation, so those recipes keep all four.
+        List<RecipeTemplate> distinct = new ArrayList<>(ROTATIONS.length);
+        for (Rotation rot : ROTATIONS) {
+            RecipeTemplate template = buildTemplate(base, sizeX, sizeY, sizeZ, rot);
+            boolean redundant = verified.isEmpty() && distinct.stream().anyMatch(template::isEquivalentTo);
+            if (!redundant)
+                distinct.add(template);
+        }
+
+        RecipeTemplate[] templates = distinct.toArray(new RecipeTemplate[0]);
+        int[] verifiedLayers = verified.stream().mapToInt(Integer::intValue).toArray();
+        CompiledRecipe compiled = new CompiledRecipe(palette, components, indices, templates, verifiedLayers, totals, layerMin, layerMax);
+        compiled.precomputeStates();
+        return compiled;
+    }
+
+    /**
+     * Fills the state cache from every state the block components could accept, so overlaps between
+     * components are found (and reported) once at load instead of silently during matching.
+     */
+    private void precomputeStates() {
+        for (int i = 1; i < components.length; i++) {
+            if (!(components[i] instanceof BlockComponent))
+                continue;
+
+            Block block = ((BlockComponent) components[i]).getBlock();
+            for (BlockState state : block.getStateDefinition().getPossibleStates()) {
+                if (!stateCache.containsKey(state))
+                    stateCache.put(state, resolveUncached(state, true));
+            }
+        }
+    }
+
+    /**
+     * Drops every cached state resolution; used when tags change what components accept.
+     */
+    public void clearStateCache() {
+        stateCache.clear();
+        precomputeStates();
+    }
+
+    /**
+     * Builds the template a field has to match, if rotating that field by {@code rot} would
+     * line it up with the base recipe definition.
+     */
+    private static RecipeTemplate buildTemplate(int[] base, int sizeX, int sizeY, int sizeZ, Rotation rot) {
+        boolean swapped = rot == Rotation.CLOCKWISE_90 || rot == Rotation.COUNTERCLOCKWISE_90;
+        int fieldX = swapped ? sizeZ : sizeX;
+        int fieldZ = swapped ? sizeX : sizeZ;
+
+        int[] cells = new int[base.length];
+        for (int y = 0; y < sizeY; y++) {
+            for (int z = 0; z < fieldZ; z++) {
+                for (int x = 0; x < fieldX; x++) {
+                    int recipeX = BlockSpaceUtil.rotateX(x, z, fieldX, fieldZ, rot);
+                    int recipeZ = BlockSpaceUtil.rotateZ(x, z, fieldX, fieldZ, rot);
+
+                    cells[BlockSpaceUtil.getFlatIndex(x, y, z, fieldX, fieldZ)] =
+                            base[BlockSpaceUtil.getFlatIndex(recipeX, y, recipeZ, sizeX, sizeZ)];
+                }
+            }
+        }
+
+        return new RecipeTemplate(rot, fieldX, sizeY, fieldZ, cells);
+    }
+
+    /**
+     * Checks if the template alone fully describes a layer. Analytic layers are always fully
+     * described, since they only place one component by position.
+     */
+    private static boolean isBuiltInLayer(IRecipeLayer layer) {
+        return layer instanceof IAnalyticRecipeLayer
+                || layer instanceof MixedComponentRecipeLayer;
+    }
+
+    public RecipeTemplate[] getTemplates() {
+        return templates;
+    }
+
+    /**
+     * Gets the number of rotations that are never checked because the recipe looks the same in
+     * an orientation that already is.
+     */
+    public int getSkippedRotations() {
+        return ROTATIONS.length - templates.length;
+    }
+
+    public int[] getVerifiedLayers() {
+        return verifiedLayers;
+    }
+
+    /**
+     * Quick rejection check using only block counts. Looks at each distinct state in the field once,
+     * instead of every position in every rotation.
+     *
+     * @param snapshot The field contents.
+     * @return False if the field definitely cannot match; true if it might.
+     */
+    public boolean canMatch(FieldSnapshot snapshot) {
+        if (snapshot.getFilledLayers() != layerMinFilled.length)
+            return false;
+
+        for (int y = 0; y < layerMinFilled.length; y++) {
+            int filled = snapshot.getFilledCount(y);
+            if (filled < layerMinFilled[y] || filled > layerMaxFilled[y])
+                return false;
+        }
+
+        int[] fieldTotals = new int[palette.length];
+        for (Map.Entry<BlockState, Integer> count : snapshot.getStateCounts().entrySet())
+            fieldTotals[resolve(count.getKey())] += count.getValue();
+
+        return Arrays.equals(fieldTotals, componentTotals);
+    }
+
+    public int getPaletteIndex(String componentKey) {
+        return paletteIndices.getOrDefault(componentKey, NO_COMPONENT);
+    }
+
+    public Optional<String> getComponentKey(int paletteIndex) {
+        if (paletteIndex <= NO_COMPONENT || paletteIndex >= palette.length)
+            return Optional.empty();
+
+        return paletteKeys.get(paletteIndex);
+    }
+
+    /**
+     * Gets the number of palette entries, including {@link #NO_COMPONENT}.
+     */
+    public int getPaletteSize() {
+        return palette.length;
+    }
+
+    /**
+     * Resolves a block state to a palette index. Components are checked in palette (sorted key) order,
+     * so states that match more than one component always resolve the same way.
+     */
+    public int resolve(BlockState state) {
+        Integer cached = stateCache.get(state);
+        if (cached != null)
+            return cached;
+
+        int resolved = resolveUncached(state, false);
+        stateCache.putIfAbsent(state, resolved);
+        return resolved;
+    }
+
+    private int resolveUncached(BlockState state, boolean warnAmbiguous) {
+        int first = NO_COMPONENT;
+        for (int i = 1; i < components.length; i++) {
+            if (!components[i].matches(state))
+                continue;
+
+            if (first == NO_COMPONENT) {
+                first = i;
+                if (!warnAmbiguous)
+                    break;
+            } else {
+                CompactCrafting.LOGGER.warn("Block state {} matches recipe components '{}' and '{}'; it will always be treated as '{}'.",
+                        state, palette[first], palette[i], palette[first]);
+            }
+        }
+
+        return first;
+    }
+
+    /**
+     * Reads an area into palette indices, in the same flat layout as the templates.
+     *
+     * @param world The world (or field snapshot) to read from.
+     * @param bounds The area to read (world coordinates).
+     * @return The resolved cells.
+     */
+    public int[] resolve(IBlockReader world, AxisAlignedBB bounds) {
+        int sizeX = (int) Math.ceil(bounds.getXsize());
+        int sizeY = (int) Math.ceil(bounds.getYsize());
+        int sizeZ = (int) Math.ceil(bounds.getZsize());
+
+        int[] cells = new int[sizeX * sizeY * sizeZ];
+        for (int y = 0; y < sizeY; y++)
+            resolveLayer(world, bounds, y, cells);
+
+        return cells;
+    }
+
+    /**
+     * Re-reads a single layer of an area into an existing cell array.
+     *
+     * @param world The world (or field snapshot) to read from.
+     * @param bounds The full area the cells cover (world coordinates).
+     * @param layer The Y offset of the layer to read.
+     * @param cells The cells to update; see {@link #resolve(IBlockReader, AxisAlignedBB)}.
+     */
+    public void resolveLayer(IBlockReader world, AxisAlignedBB bounds, int layer, int[] cells) {
+        int sizeX = (int) Math.ceil(bounds.getXsize());
+        int sizeZ = (int) Math.ceil(bounds.getZsize());
+        int minX = (int) Math.floor(bounds.minX);
+        int minY = (int) Math.floor(bounds.minY);
+        int minZ = (int) Math.floor(bounds.minZ);
+
+        BlockPos.Mutable pos = new BlockPos.Mutable();
+        int i = layer * sizeX * sizeZ;
+        for (int z = 0; z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++) {
+                pos.set(minX + x, minY + layer, minZ + z);
+                cells[i++] = resolve(world.getBlockState(pos));
+            }
+        }
+    }
+}
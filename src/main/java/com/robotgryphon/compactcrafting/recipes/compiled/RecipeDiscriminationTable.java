@@ -0,0 +1,195 @@
+package com.robotgryphon.compactcrafting.recipes.compiled;
+
+import com.robotgryphon.compactcrafting.field.FieldSnapshot;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.math.AxisAlignedBB;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Inverted index over every orientation of every recipe with one exact footprint. For each position
+ * it answers "which recipe orientations accept this block here?" as a bitset, so one walk over a
+ * field narrows every candidate down at once instead of checking recipes one by one.
+ *
+ * Positions that every orientation treats the same way share a single lookup, so large filled
+ * areas cost about as much to index as a single position.
+ */
+public class RecipeDiscriminationTable {
+
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+
+    /**
+     * One entry per recipe orientation, in index order.
+     */
+    private final MiniaturizationRecipe[] recipes;
+    private final RecipeTemplate[] templates;
+
+    /**
+     * Position class of each cell; cells with the same requirements in every entry share a class.
+     */
+    private final int[] cellClasses;
+
+    /**
+     * Per class, the palette index each entry requires.
+     */
+    private final int[][] requirements;
+
+    /**
+     * Per class, the entries that accept each block state seen so far.
+     */
+    private final Map<BlockState, BitSet>[] accepted;
+
+    @SuppressWarnings("unchecked")
+    public RecipeDiscriminationTable(int sizeX, int sizeY, int sizeZ, Collection<MiniaturizationRecipe> candidates) {
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+
+        List<MiniaturizationRecipe> entryRecipes = new ArrayList<>();
+        List<RecipeTemplate> entryTemplates = new ArrayList<>();
+        for (MiniaturizationRecipe recipe : candidates) {
+            for (RecipeTemplate template : recipe.getCompiled().getTemplates()) {
+                if (!template.hasSize(sizeX, sizeY, sizeZ))
+                    continue;
+
+                entryRecipes.add(recipe);
+                entryTemplates.add(template);
+            }
+        }
+
+        this.recipes = entryRecipes.toArray(new MiniaturizationRecipe[0]);
+        this.templates = entryTemplates.toArray(new RecipeTemplate[0]);
+
+        int volume = sizeX * sizeY * sizeZ;
+        this.cellClasses = new int[volume];
+
+        Map<RequirementKey, Integer> classes = new HashMap<>();
+        List<int[]> classRequirements = new ArrayList<>();
+        for (int cell = 0; cell < volume; cell++) {
+            int[] required = new int[templates.length];
+            for (int e = 0; e < templates.length; e++)
+                required[e] = templates[e].getCell(cell);
+
+            RequirementKey key = new RequirementKey(required);
+            Integer cls = classes.get(key);
+            if (cls == null) {
+                cls = classRequirements.size();
+                classes.put(key, cls);
+                classRequirements.add(required);
+            }
+
+            cellClasses[cell] = cls;
+        }
+
+        this.requirements = classRequirements.toArray(new int[0][]);
+        this.accepted = new Map[requirements.length];
+        for (int i = 0; i < accepted.length; i++)
+            accepted[i] = new ConcurrentHashMap<>();
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    /**
+     * Gets the number of recipe orientations in the table.
+     */
+    public int size() {
+        return templates.length;
+    }
+
+    /**
+     * Gets the number of distinct position classes; one lookup is cached per class and block state.
+     */
+    public int getClassCount() {
+        return requirements.length;
+    }
+
+    public MiniaturizationRecipe getRecipe(int entry) {
+        return recipes[entry];
+    }
+
+    public RecipeTemplate getTemplate(int entry) {
+        return templates[entry];
+    }
+
+    /**
+     * Gets the entries that accept a state at a position. The returned set is shared and must not be changed.
+     */
+    private BitSet getAccepted(int cell, BlockState state) {
+        int cls = cellClasses[cell];
+        BitSet entries = accepted[cls].get(state);
+        if (entries != null)
+            return entries;
+
+        int[] required = requirements[cls];
+        BitSet computed = new BitSet(required.length);
+        for (int e = 0; e < required.length; e++) {
+            if (recipes[e].getCompiled().resolve(state) == required[e])
+                computed.set(e);
+        }
+
+        BitSet existing = accepted[cls].putIfAbsent(state, computed);
+        return existing == null ? computed : existing;
+    }
+
+    /**
+     * Walks one layer of a field and returns every entry that matches the whole layer.
+     *
+     * @param snapshot The field contents.
+     * @param filledBounds The filled bounds of the field; must have this table's size.
+     * @param layer The Y offset of the layer.
+     * @return The matching entries.
+     */
+    public BitSet matchLayer(FieldSnapshot snapshot, AxisAlignedBB filledBounds, int layer) {
+        BitSet matching = new BitSet(templates.length);
+        matching.set(0, templates.length);
+
+        int minX = (int) Math.floor(filledBounds.minX) - snapshot.getOrigin().getX();
+        int y = (int) Math.floor(filledBounds.minY) - snapshot.getOrigin().getY() + layer;
+        int minZ = (int) Math.floor(filledBounds.minZ) - snapshot.getOrigin().getZ();
+
+        int cell = layer * sizeX * sizeZ;
+        for (int z = 0; z < sizeZ; z++) {
+            for (int x = 0; x < sizeX; x++, cell++) {
+                matching.and(getAccepted(cell, snapshot.getState(minX + x, y, minZ + z)));
+                if (matching.isEmpty())
+                    return matching;
+            }
+        }
+
+        return matching;
+    }
+
+    /**
+     * Drops every cached lookup; needed when what the components accept changes.
+     */
+    public void clearCache() {
+        for (Map<BlockState, BitSet> entries : accepted)
+            entries.clear();
+    }
+
+    private static final class RequirementKey {
+        private final int[] required;
+        private final int hash;
+
+        RequirementKey(int[] required) {
+            this.required = required;
+            this.hash = Arrays.hashCode(required);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof RequirementKey && Arrays.equals(required, ((RequirementKey) o).required);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.robotgryphon.compactcrafting.recipes.compiled;
+
+import net.minecraft.util.Rotation;
+
+import java.util.Arrays;
+
+/**
+ * A single orientation of a compiled miniaturization recipe. Every cell holds the palette index
+ * of the component required at that position; {@link CompiledRecipe#NO_COMPONENT} means the position
+ * must not contain any of the recipe's components.
+ *
+ * Cells are laid out flat, see {@link com.robotgryphon.compactcrafting.util.BlockSpaceUtil#getFlatIndex}.
+ */
+public class RecipeTemplate {
+
+    private final Rotation rotation;
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+    private final int[] cells;
+
+    RecipeTemplate(Rotation rotation, int sizeX, int sizeY, int sizeZ, int[] cells) {
+        this.rotation = rotation;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+        this.cells = cells;
+    }
+
+    /**
+     * The rotation that needs to be applied to a matching field to line it up with the recipe definition.
+     */
+    public Rotation getRotation() {
+        return rotation;
+    }
+
+    public int getSizeX() {
+        return sizeX;
+    }
+
+    public int getSizeY() {
+        return sizeY;
+    }
+
+    public int getSizeZ() {
+        return sizeZ;
+    }
+
+    public int getCell(int index) {
+        return cells[index];
+    }
+
+    public boolean hasSize(int sizeX, int sizeY, int sizeZ) {
+        return this.sizeX == sizeX && this.sizeY == sizeY && this.sizeZ == sizeZ;
+    }
+
+    /**
+     * Checks if another orientation requires exactly the same cells as this one, meaning a field
+     * matching one would always match the other.
+     */
+    public boolean isEquivalentTo(RecipeTemplate other) {
+        return hasSize(other.sizeX, other.sizeY, other.sizeZ) && Arrays.equals(cells, other.cells);
+    }
+
+    /**
+     * Checks a set of resolved field cells against this template.
+     *
+     * @param sizeX X size of the resolved field area.
+     * @param sizeY Y size of the resolved field area.
+     * @param sizeZ Z size of the resolved field area.
+     * @param fieldCells Palette indices for the field area, in the same flat layout as the template.
+     * @return True if every cell matches.
+     */
+    public boolean matches(int sizeX, int sizeY, int sizeZ, int[] fieldCells) {
+        return hasSize(sizeX, sizeY, sizeZ) && Arrays.equals(cells, fieldCells);
+    }
+}
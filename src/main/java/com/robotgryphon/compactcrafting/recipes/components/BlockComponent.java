@@ -22,6 +22,11 @@ public class BlockComponent implements IRecipeComponent, IRecipeBlockComponent {
     private final Map<String, Predicate<Comparable<?>>> filters;
     private final HashMap<String, List<String>> allowedValues;
 
+    /**
+     * Every state of the block, and which of them pass the filters; see {@link #matches(BlockState)}.
+     */
+    private volatile AcceptedStates accepted;
+
     public static final Codec<BlockComponent> CODEC = RecordCodecBuilder.create(i -> i.group(
             CodecExtensions.BLOCK_ID_CODEC.fieldOf("block").forGetter(BlockComponent::getBlock),
             Codec.unboundedMap(Codec.STRING, Codec.STRING.listOf()).optionalFieldOf("properties").forGetter(BlockComponent::getProperties)
@@ -64,9 +69,35 @@ public class BlockComponent implements IRecipeComponent, IRecipeBlockComponent {
                 }
             }
         });
+
+        this.accepted = new AcceptedStates();
     }
 
     public boolean matches(BlockState state) {
+        if (state.getBlock() != this.block)
+            return false;
+
+        AcceptedStates lookup = this.accepted;
+        int offset = Block.getId(state) - lookup.baseId;
+
+        // State ids can be remapped when a world's registry snapshot is loaded; rebuild if they moved
+        if (offset < 0 || offset >= lookup.states.length || lookup.states[offset] != state) {
+            lookup = new AcceptedStates();
+            this.accepted = lookup;
+            offset = Block.getId(state) - lookup.baseId;
+
+            if (offset < 0 || offset >= lookup.states.length || lookup.states[offset] != state)
+                return matchesProperties(state);
+        }
+
+        return lookup.bits.get(offset);
+    }
+
+    /**
+     * Checks a state against the property filters directly. This is what {@link #matches(BlockState)}
+     * precomputes for every state of the block.
+     */
+    public boolean matchesProperties(BlockState state) {
         if (state.getBlock().getRegistryName() != this.block.getRegistryName())
             return false;
 
@@ -112,4 +143,36 @@ public class BlockComponent implements IRecipeComponent, IRecipeBlockComponent {
     public boolean hasFilter(String property) {
         return filters.containsKey(property);
     }
+
+    /**
+     * The states of a block are registered together, so their ids form one contiguous run. The run is
+     * stored from its lowest id, and a bit is set for every state that passes the filters.
+     */
+    private class AcceptedStates {
+        private final int baseId;
+        private final BlockState[] states;
+        private final BitSet bits;
+
+        AcceptedStates() {
+            List<BlockState> possible = block.getStateDefinition().getPossibleStates();
+
+            int min = Integer.MAX_VALUE, max = Integer.MIN_VALUE;
+            for (BlockState state : possible) {
+                int id = Block.getId(state);
+                min = Math.min(min, id);
+                max = Math.max(max, id);
+            }
+
+            this.baseId = min;
+            this.states = new BlockState[max - min + 1];
+            this.bits = new BitSet(states.length);
+
+            for (BlockState state : possible) {
+                int offset = Block.getId(state) - min;
+                states[offset] = state;
+                if (matchesProperties(state))
+                    bits.set(offset);
+            }
+        }
+    }
 }
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableSet;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.api.layers.IAnalyticRecipeLayer;
 import com.robotgryphon.compactcrafting.api.layers.IRecipeLayer;
 import com.robotgryphon.compactcrafting.api.layers.IRecipeLayerBlocks;
 import com.robotgryphon.compactcrafting.api.layers.RecipeLayerType;
@@ -16,7 +17,7 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 
-public class FilledComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRecipeLayer {
+public class FilledComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRecipeLayer, IAnalyticRecipeLayer {
 
     private String componentKey;
     private AxisAlignedBB recipeDimensions;
@@ -53,8 +54,16 @@ public class FilledComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRe
         return (int) Math.ceil(recipeDimensions.getXsize() * recipeDimensions.getZsize());
     }
 
+    @Override
+    public boolean isRequired(int x, int z, int sizeX, int sizeZ) {
+        return true;
+    }
+
     @Override
     public boolean matches(IRecipeLayerBlocks blocks) {
+        if(blocks instanceof FlatRecipeLayerBlocks)
+            return ((FlatRecipeLayerBlocks) blocks).matches(this);
+
         Map<String, Integer> totalsInWorld = blocks.getComponentTotals();
         if(totalsInWorld.size() != 1)
             return false;
@@ -0,0 +1,200 @@
+package com.robotgryphon.compactcrafting.recipes.layers;
+
+import com.robotgryphon.compactcrafting.api.layers.IAnalyticRecipeLayer;
+import com.robotgryphon.compactcrafting.api.layers.IRecipeLayerBlocks;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.compiled.CompiledRecipe;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import net.minecraft.block.BlockState;
+import net.minecraft.util.Rotation;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockReader;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * A layer of blocks backed by a flat array of resolved palette indices. Rotating it just changes how
+ * positions are mapped into the array, so a rotated view shares everything with the original.
+ *
+ * Positions are relative to the layer, the same as {@link RecipeLayerBlocks}.
+ */
+public class FlatRecipeLayerBlocks implements IRecipeLayerBlocks {
+
+    private final CompiledRecipe recipe;
+    private final IBlockReader world;
+    private final AxisAlignedBB bounds;
+
+    private final int[] cells;
+    private final int offset;
+    private final int sizeX;
+    private final int sizeZ;
+
+    private final Rotation rotation;
+
+    /**
+     * Shared by every rotation of the same layer; totals don't change when a layer is rotated.
+     */
+    private final Map<String, Integer> componentTotals;
+
+    /**
+     * Wraps one layer of an already-resolved area.
+     *
+     * @param recipe The compiled recipe the cells were resolved against.
+     * @param world The world (or field snapshot) the cells were read from.
+     * @param bounds The bounds of the layer, in world coordinates.
+     * @param cells The resolved cells; see {@link CompiledRecipe#resolve(IBlockReader, AxisAlignedBB)}.
+     * @param offset Where this layer starts in the cell array.
+     */
+    public FlatRecipeLayerBlocks(CompiledRecipe recipe, IBlockReader world, AxisAlignedBB bounds, int[] cells, int offset) {
+        this.recipe = recipe;
+        this.world = world;
+        this.bounds = bounds;
+        this.cells = cells;
+        this.offset = offset;
+        this.sizeX = (int) Math.ceil(bounds.getXsize());
+        this.sizeZ = (int) Math.ceil(bounds.getZsize());
+        this.rotation = Rotation.NONE;
+        this.componentTotals = buildComponentTotals();
+    }
+
+    private FlatRecipeLayerBlocks(FlatRecipeLayerBlocks original, Rotation rotation) {
+        this.recipe = original.recipe;
+        this.world = original.world;
+        this.bounds = original.bounds;
+        this.cells = original.cells;
+        this.offset = original.offset;
+        this.sizeX = original.sizeX;
+        this.sizeZ = original.sizeZ;
+        this.rotation = rotation;
+        this.componentTotals = original.componentTotals;
+    }
+
+    public static FlatRecipeLayerBlocks create(IBlockReader world, MiniaturizationRecipe recipe, AxisAlignedBB bounds) {
+        CompiledRecipe compiled = recipe.getCompiled();
+        return new FlatRecipeLayerBlocks(compiled, world, bounds, compiled.resolve(world, bounds), 0);
+    }
+
+    private Map<String, Integer> buildComponentTotals() {
+        int[] totals = new int[recipe.getPaletteSize()];
+        for (int i = offset; i < offset + sizeX * sizeZ; i++)
+            totals[cells[i]]++;
+
+        Map<String, Integer> byKey = new HashMap<>();
+        for (int i = CompiledRecipe.NO_COMPONENT + 1; i < totals.length; i++) {
+            if (totals[i] > 0)
+                byKey.put(recipe.getComponentKey(i).get(), totals[i]);
+        }
+
+        return Collections.unmodifiableMap(byKey);
+    }
+
+    /**
+     * Gets a view of this layer with a further rotation applied. The view shares this layer's cells.
+     */
+    public FlatRecipeLayerBlocks rotate(Rotation rot) {
+        if (rot == Rotation.NONE)
+            return this;
+
+        return new FlatRecipeLayerBlocks(this, rotation.getRotated(rot));
+    }
+
+    public Rotation getRotation() {
+        return rotation;
+    }
+
+    private boolean isSwapped() {
+        return rotation == Rotation.CLOCKWISE_90 || rotation == Rotation.COUNTERCLOCKWISE_90;
+    }
+
+    /**
+     * Size of the view on the X axis, after rotation.
+     */
+    public int getViewSizeX() {
+        return isSwapped() ? sizeZ : sizeX;
+    }
+
+    /**
+     * Size of the view on the Z axis, after rotation.
+     */
+    public int getViewSizeZ() {
+        return isSwapped() ? sizeX : sizeZ;
+    }
+
+    /**
+     * Gets the palette index at a position in the view, or -1 if the position is outside the layer.
+     */
+    public int getCell(int x, int z) {
+        if (x < 0 || z < 0 || x >= getViewSizeX() || z >= getViewSizeZ())
+            return -1;
+
+        return cells[offset + BlockSpaceUtil.getRotatedSourceIndex(x, z, sizeX, sizeZ, rotation)];
+    }
+
+    /**
+     * Checks an analytic layer against this view, cell by cell, without any position lookups.
+     */
+    public boolean matches(IAnalyticRecipeLayer layer) {
+        int required = recipe.getPaletteIndex(layer.getComponent());
+        if (required == CompiledRecipe.NO_COMPONENT)
+            return false;
+
+        int viewX = getViewSizeX();
+        int viewZ = getViewSizeZ();
+        for (int z = 0; z < viewZ; z++) {
+            for (int x = 0; x < viewX; x++) {
+                int expected = layer.isRequired(x, z, viewX, viewZ) ? required : CompiledRecipe.NO_COMPONENT;
+                if (getCell(x, z) != expected)
+                    return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    public Optional<String> getComponentAtPosition(BlockPos relative) {
+        if (relative.getY() != 0)
+            return Optional.empty();
+
+        int cell = getCell(relative.getX(), relative.getZ());
+        return cell < 0 ? Optional.empty() : recipe.getComponentKey(cell);
+    }
+
+    @Override
+    public Optional<BlockState> getStateAtPosition(BlockPos relative) {
+        if (relative.getY() != 0 || getCell(relative.getX(), relative.getZ()) < 0)
+            return Optional.empty();
+
+        int source = BlockSpaceUtil.getRotatedSourceIndex(relative.getX(), relative.getZ(), sizeX, sizeZ, rotation);
+        BlockPos worldPos = new BlockPos(bounds.minX + (source % sizeX), bounds.minY, bounds.minZ + (source / sizeX));
+        return Optional.of(world.getBlockState(worldPos));
+    }
+
+    @Override
+    public Stream<BlockPos> getPositions() {
+        int viewX = getViewSizeX();
+        return IntStream.range(0, viewX * getViewSizeZ())
+                .mapToObj(i -> new BlockPos(i % viewX, 0, i / viewX));
+    }
+
+    @Override
+    public int getNumberUniqueComponents() {
+        return componentTotals.size();
+    }
+
+    @Override
+    public Map<String, Integer> getComponentTotals() {
+        return componentTotals;
+    }
+
+    @Override
+    public AxisAlignedBB getBounds() {
+        return bounds;
+    }
+}
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableSet;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.robotgryphon.compactcrafting.Registration;
+import com.robotgryphon.compactcrafting.api.layers.IAnalyticRecipeLayer;
 import com.robotgryphon.compactcrafting.api.layers.IRecipeLayer;
 import com.robotgryphon.compactcrafting.api.layers.IRecipeLayerBlocks;
 import com.robotgryphon.compactcrafting.api.layers.RecipeLayerType;
@@ -12,13 +13,11 @@ import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
-public class HollowComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRecipeLayer {
+public class HollowComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRecipeLayer, IAnalyticRecipeLayer {
 
     private String componentKey;
     private AxisAlignedBB recipeDimensions;
-    private Collection<BlockPos> filledPositions;
 
     public static final Codec<HollowComponentRecipeLayer> CODEC = RecordCodecBuilder.create(i -> i.group(
             Codec.STRING.fieldOf("wall").forGetter(HollowComponentRecipeLayer::getComponent)
@@ -43,18 +42,35 @@ public class HollowComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRe
     }
 
     public Optional<String> getComponentForPosition(BlockPos pos) {
-        if(filledPositions.contains(pos))
+        int sizeX = getSizeX();
+        int sizeZ = getSizeZ();
+        if(pos.getY() != 0 || pos.getX() < 0 || pos.getZ() < 0 || pos.getX() >= sizeX || pos.getZ() >= sizeZ)
+            return Optional.empty();
+
+        if(isRequired(pos.getX(), pos.getZ(), sizeX, sizeZ))
             return Optional.ofNullable(componentKey);
 
         return Optional.empty();
     }
 
     public int getNumberFilledPositions() {
-        return filledPositions.size();
+        int sizeX = getSizeX();
+        int sizeZ = getSizeZ();
+
+        // Whole rectangle, minus the inside
+        return sizeX * sizeZ - Math.max(0, sizeX - 2) * Math.max(0, sizeZ - 2);
+    }
+
+    @Override
+    public boolean isRequired(int x, int z, int sizeX, int sizeZ) {
+        return x == 0 || z == 0 || x == sizeX - 1 || z == sizeZ - 1;
     }
 
     @Override
     public boolean matches(IRecipeLayerBlocks blocks) {
+        if(blocks instanceof FlatRecipeLayerBlocks)
+            return ((FlatRecipeLayerBlocks) blocks).matches(this);
+
         Map<String, Integer> totalsInWorld = blocks.getComponentTotals();
 
         // Hollow layers only match a single component type
@@ -65,7 +81,7 @@ public class HollowComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRe
             return false;
 
         int targetCount = totalsInWorld.get(componentKey);
-        int layerCount = filledPositions.size();
+        int layerCount = getNumberFilledPositions();
 
         return layerCount == targetCount;
     }
@@ -86,22 +102,29 @@ public class HollowComponentRecipeLayer implements IRecipeLayer, IDynamicSizedRe
      */
     @Override
     public void recalculateRequirements() {
-        this.filledPositions = getWallPositions();
+        // Wall positions are worked out from the dimensions when needed
     }
 
-    public Collection<BlockPos> getWallPositions() {
-        AxisAlignedBB layerBounds = new AxisAlignedBB(0, 0, 0, recipeDimensions.getXsize() - 1, 0, recipeDimensions.getZsize() - 1);
-        AxisAlignedBB insideBounds = layerBounds.move(1, 0, 1).contract(2, 0, 2);
+    private int getSizeX() {
+        return (int) Math.ceil(recipeDimensions.getXsize());
+    }
 
-        Set<BlockPos> positions = BlockPos.betweenClosedStream(layerBounds)
-                .map(BlockPos::immutable)
-                .collect(Collectors.toSet());
+    private int getSizeZ() {
+        return (int) Math.ceil(recipeDimensions.getZsize());
+    }
+
+    public Collection<BlockPos> getWallPositions() {
+        int sizeX = getSizeX();
+        int sizeZ = getSizeZ();
 
-        Set<BlockPos> inside = BlockPos.betweenClosedStream(insideBounds)
-                .map(BlockPos::immutable)
-                .collect(Collectors.toSet());
+        List<BlockPos> positions = new ArrayList<>(getNumberFilledPositions());
+        for(int z = 0; z < sizeZ; z++) {
+            for(int x = 0; x < sizeX; x++) {
+                if(isRequired(x, z, sizeX, sizeZ))
+                    positions.add(new BlockPos(x, 0, z));
+            }
+        }
 
-        positions.removeAll(inside);
         return positions;
     }
 
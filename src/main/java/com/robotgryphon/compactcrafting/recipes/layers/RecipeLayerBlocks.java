@@ -6,7 +6,7 @@ import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
 import net.minecraft.block.BlockState;
 import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
-import net.minecraft.world.IWorldReader;
+import net.minecraft.world.IBlockReader;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -51,7 +51,15 @@ public class RecipeLayerBlocks implements IRecipeLayerBlocks, Cloneable {
         this.rebuildComponentTotals();
     }
 
-    public static RecipeLayerBlocks create(IWorldReader world, MiniaturizationRecipe recipe, AxisAlignedBB bounds) {
+    /**
+     * Reads a layer into a flat view that can be rotated without copying. This is the default
+     * way to read a layer for matching; {@link #create} builds the map-backed version.
+     */
+    public static FlatRecipeLayerBlocks createView(IBlockReader world, MiniaturizationRecipe recipe, AxisAlignedBB bounds) {
+        return FlatRecipeLayerBlocks.create(world, recipe, bounds);
+    }
+
+    public static RecipeLayerBlocks create(IBlockReader world, MiniaturizationRecipe recipe, AxisAlignedBB bounds) {
         RecipeLayerBlocks instance = new RecipeLayerBlocks(bounds);
 
         BlockPos.betweenClosedStream(bounds).forEach(pos -> {
@@ -14,6 +14,18 @@ public final class RecipeLayerUtil {
     }
 
     public static IRecipeLayerBlocks rotate(IRecipeLayerBlocks original, Rotation rotation) {
+        // Flat layers rotate by index math and share their cells with the original
+        if (original instanceof FlatRecipeLayerBlocks)
+            return ((FlatRecipeLayerBlocks) original).rotate(rotation);
+
+        return rotateMapped(original, rotation);
+    }
+
+    /**
+     * Rotates a layer by copying every position into new maps. Works for any layer implementation;
+     * kept as the reference for {@link FlatRecipeLayerBlocks#rotate(Rotation)}.
+     */
+    public static IRecipeLayerBlocks rotateMapped(IRecipeLayerBlocks original, Rotation rotation) {
         if (rotation == Rotation.NONE) {
             return new RecipeLayerBlocks(original);
         }
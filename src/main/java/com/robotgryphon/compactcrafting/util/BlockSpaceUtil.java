@@ -50,6 +50,91 @@ public abstract class BlockSpaceUtil {
         return realPositions;
     }
 
+    /**
+     * Rotates an X coordinate inside a flat sizeX by sizeZ grid, keeping the result normalized
+     * to the rotated grid. Matches {@link #rotatePositionsInPlace(BlockPos[], Rotation)} for a
+     * fully-filled rectangle, without allocating any positions.
+     *
+     * @param x The X coordinate to rotate.
+     * @param z The Z coordinate to rotate.
+     * @param sizeX The size of the grid on the X axis, before rotation.
+     * @param sizeZ The size of the grid on the Z axis, before rotation.
+     * @param rot The rotation to apply.
+     * @return The rotated X coordinate.
+     */
+    public static int rotateX(int x, int z, int sizeX, int sizeZ, Rotation rot) {
+        switch (rot) {
+            case CLOCKWISE_90:
+                return sizeZ - 1 - z;
+
+            case CLOCKWISE_180:
+                return sizeX - 1 - x;
+
+            case COUNTERCLOCKWISE_90:
+                return z;
+
+            default:
+                return x;
+        }
+    }
+
+    /**
+     * Rotates a Z coordinate inside a flat sizeX by sizeZ grid. See {@link #rotateX(int, int, int, int, Rotation)}.
+     *
+     * @return The rotated Z coordinate.
+     */
+    public static int rotateZ(int x, int z, int sizeX, int sizeZ, Rotation rot) {
+        switch (rot) {
+            case CLOCKWISE_90:
+                return x;
+
+            case CLOCKWISE_180:
+                return sizeZ - 1 - z;
+
+            case COUNTERCLOCKWISE_90:
+                return sizeX - 1 - x;
+
+            default:
+                return z;
+        }
+    }
+
+    /**
+     * Finds where a position in a rotated view of a flat layer comes from, so a rotated layer can be
+     * read without copying it. The inverse of {@link #rotateX}/{@link #rotateZ}.
+     *
+     * @param x The X coordinate in the rotated view.
+     * @param z The Z coordinate in the rotated view.
+     * @param sizeX The size of the unrotated layer on the X axis.
+     * @param sizeZ The size of the unrotated layer on the Z axis.
+     * @param rot The rotation the view applies.
+     * @return The index (z * sizeX + x) of the position in the unrotated layer.
+     */
+    public static int getRotatedSourceIndex(int x, int z, int sizeX, int sizeZ, Rotation rot) {
+        switch (rot) {
+            case CLOCKWISE_90:
+                // view x = sizeZ - 1 - z, view z = x
+                return (sizeZ - 1 - x) * sizeX + z;
+
+            case CLOCKWISE_180:
+                return (sizeZ - 1 - z) * sizeX + (sizeX - 1 - x);
+
+            case COUNTERCLOCKWISE_90:
+                // view x = z, view z = sizeX - 1 - x
+                return x * sizeX + (sizeX - 1 - z);
+
+            default:
+                return z * sizeX + x;
+        }
+    }
+
+    /**
+     * Gets the index of a position inside a flat (x-fastest, then z, then y) voxel array.
+     */
+    public static int getFlatIndex(int x, int y, int z, int sizeX, int sizeZ) {
+        return (y * sizeZ + z) * sizeX + x;
+    }
+
     public static boolean boundsFitsInside(AxisAlignedBB check, AxisAlignedBB space) {
         if(check.getZsize() > space.getZsize())
             return false;
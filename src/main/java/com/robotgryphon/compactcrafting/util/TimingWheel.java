@@ -0,0 +1,153 @@
+package com.robotgryphon.compactcrafting.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ObjLongConsumer;
+
+/**
+ * Hashed timing wheel keyed by game time. Scheduling is constant time and advancing one tick only
+ * looks at the one slot that tick maps to, so having nothing due costs next to nothing no matter
+ * how many entries are waiting further out.
+ *
+ * Entries further out than the wheel is long stay in their slot and are skipped until their round comes.
+ *
+ * @param <T> The scheduled item type.
+ */
+public final class TimingWheel<T> {
+
+    private final List<Entry<T>>[] slots;
+    private final int mask;
+
+    /**
+     * Last game time that was advanced to.
+     */
+    private long current = Long.MIN_VALUE;
+    private int size = 0;
+
+    /**
+     * @param slotCount Number of slots; rounded up to a power of two.
+     */
+    @SuppressWarnings("unchecked")
+    public TimingWheel(int slotCount) {
+        int count = Integer.highestOneBit(Math.max(1, slotCount - 1)) << 1;
+        this.slots = new List[count];
+        this.mask = count - 1;
+    }
+
+    /**
+     * Schedules an item. Anything scheduled at or before the last advanced time fires on the next advance.
+     *
+     * @param item The item to schedule.
+     * @param time The game time to fire at.
+     * @return The game time the item will actually fire at.
+     */
+    public long schedule(T item, long time) {
+        long at = current == Long.MIN_VALUE ? time : Math.max(time, current + 1);
+
+        int slot = (int) (at & mask);
+        List<Entry<T>> entries = slots[slot];
+        if (entries == null)
+            slots[slot] = entries = new ArrayList<>(2);
+
+        entries.add(new Entry<>(item, at));
+        size++;
+        return at;
+    }
+
+    /**
+     * Moves the wheel forward to a game time, firing everything due on the way.
+     *
+     * @param now The game time to advance to.
+     * @param fire Called with each due item and the time it was scheduled for.
+     */
+    public void advance(long now, ObjLongConsumer<T> fire) {
+        // The first advance has no idea how far back things were scheduled, so it looks at every slot
+        long from = current == Long.MIN_VALUE ? now - mask : current + 1;
+
+        // Time went backwards (command or world reload); nothing scheduled can be trusted, so it's all due
+        boolean rewound = current != Long.MIN_VALUE && now < current;
+
+        this.current = now;
+        if (size == 0)
+            return;
+
+        if (rewound) {
+            for (int slot = 0; slot <= mask; slot++)
+                fireSlot(slot, Long.MAX_VALUE, fire);
+
+            return;
+        }
+
+        // A gap longer than the wheel only needs each slot looked at once
+        long start = Math.max(from, now - mask);
+        for (long t = start; t <= now && size > 0; t++)
+            fireSlot((int) (t & mask), now, fire);
+    }
+
+    private void fireSlot(int slot, long now, ObjLongConsumer<T> fire) {
+        List<Entry<T>> entries = slots[slot];
+        if (entries == null || entries.isEmpty())
+            return;
+
+        List<Entry<T>> due = null;
+        int kept = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            Entry<T> entry = entries.get(i);
+            if (entry.time > now) {
+                entries.set(kept++, entry);
+                continue;
+            }
+
+            if (due == null)
+                due = new ArrayList<>();
+
+            due.add(entry);
+        }
+
+        if (due == null)
+            return;
+
+        // Take everything out before firing, since firing may schedule into this same slot
+        entries.subList(kept, entries.size()).clear();
+        size -= due.size();
+
+        for (Entry<T> entry : due)
+            fire.accept(entry.item, entry.time);
+    }
+
+    /**
+     * Drops every scheduled item.
+     */
+    public void clear() {
+        for (List<Entry<T>> entries : slots) {
+            if (entries != null)
+                entries.clear();
+        }
+
+        size = 0;
+    }
+
+    /**
+     * Gets the last game time the wheel was advanced to.
+     */
+    public long getCurrentTime() {
+        return current;
+    }
+
+    /**
+     * Gets the number of scheduled entries, including ones a caller may since have superseded.
+     */
+    public int size() {
+        return size;
+    }
+
+    private static final class Entry<T> {
+        private final T item;
+        private final long time;
+
+        private Entry(T item, long time) {
+            this.item = item;
+            this.time = time;
+        }
+    }
+}
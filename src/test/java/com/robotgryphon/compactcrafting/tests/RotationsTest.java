@@ -152,4 +152,47 @@ public class RotationsTest {
 
         Assertions.assertTrue(actual.containsAll(expected));
     }
+
+    @Test
+    void FlatIndexRotationMatchesPositionRotation() {
+        int sizeX = 3;
+        int sizeZ = 5;
+
+        BlockPos[] rectangle = new BlockPos[sizeX * sizeZ];
+        for (int z = 0; z < sizeZ; z++)
+            for (int x = 0; x < sizeX; x++)
+                rectangle[z * sizeX + x] = new BlockPos(x, 0, z);
+
+        for (Rotation rot : Rotation.values()) {
+            Map<BlockPos, BlockPos> rotated = BlockSpaceUtil.rotatePositionsInPlace(rectangle, rot);
+
+            for (BlockPos original : rectangle) {
+                BlockPos expected = rotated.get(original);
+                BlockPos actual = new BlockPos(
+                        BlockSpaceUtil.rotateX(original.getX(), original.getZ(), sizeX, sizeZ, rot),
+                        0,
+                        BlockSpaceUtil.rotateZ(original.getX(), original.getZ(), sizeX, sizeZ, rot));
+
+                Assertions.assertEquals(expected, actual, "Rotation " + rot + " did not match for " + original);
+            }
+        }
+    }
+
+    @Test
+    void RotatedSourceIndexInvertsFlatRotation() {
+        int sizeX = 3;
+        int sizeZ = 5;
+
+        for (Rotation rot : Rotation.values()) {
+            for (int z = 0; z < sizeZ; z++) {
+                for (int x = 0; x < sizeX; x++) {
+                    int rx = BlockSpaceUtil.rotateX(x, z, sizeX, sizeZ, rot);
+                    int rz = BlockSpaceUtil.rotateZ(x, z, sizeX, sizeZ, rot);
+
+                    int source = BlockSpaceUtil.getRotatedSourceIndex(rx, rz, sizeX, sizeZ, rot);
+                    Assertions.assertEquals(z * sizeX + x, source, "Rotation " + rot + " did not invert for " + x + ", " + z);
+                }
+            }
+        }
+    }
 }
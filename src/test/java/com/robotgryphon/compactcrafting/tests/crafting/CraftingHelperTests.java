@@ -0,0 +1,128 @@
+package com.robotgryphon.compactcrafting.tests.crafting;
+
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.tests.recipes.util.RecipeTestUtil;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.util.text.StringTextComponent;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class CraftingHelperTests {
+
+    @Test
+    @Tag("minecraft")
+    void SingleCopyKeepsOutputs() {
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(new ItemStack[] { new ItemStack(Items.DIAMOND, 2) }, 1);
+
+        Assertions.assertEquals(1, outputs.size());
+        assertStack(Items.DIAMOND, 2, outputs.get(0));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void BatchSplitsAtMaxStackSize() {
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(new ItemStack[] { new ItemStack(Items.COBBLESTONE, 10) }, 10);
+
+        Assertions.assertEquals(2, outputs.size());
+        assertStack(Items.COBBLESTONE, 64, outputs.get(0));
+        assertStack(Items.COBBLESTONE, 36, outputs.get(1));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void SameOutputListedTwiceIsMerged() {
+        ItemStack[] recipe = {
+                new ItemStack(Items.DIRT, 40),
+                new ItemStack(Items.STONE, 1),
+                new ItemStack(Items.DIRT, 40)
+        };
+
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(recipe, 1);
+
+        // In the order each output first appears
+        Assertions.assertEquals(3, outputs.size());
+        assertStack(Items.DIRT, 64, outputs.get(0));
+        assertStack(Items.DIRT, 16, outputs.get(1));
+        assertStack(Items.STONE, 1, outputs.get(2));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void DifferentTagsStaySeparate() {
+        ItemStack named = new ItemStack(Items.DIAMOND, 1);
+        named.setHoverName(new StringTextComponent("Shiny"));
+
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(new ItemStack[] { new ItemStack(Items.DIAMOND, 1), named }, 2);
+
+        Assertions.assertEquals(2, outputs.size());
+        assertStack(Items.DIAMOND, 2, outputs.get(0));
+        assertStack(Items.DIAMOND, 2, outputs.get(1));
+        Assertions.assertFalse(outputs.get(0).hasCustomHoverName());
+        Assertions.assertTrue(outputs.get(1).hasCustomHoverName());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void UnstackableOutputsGetAStackEach() {
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(new ItemStack[] { new ItemStack(Items.DIAMOND_SWORD) }, 3);
+
+        Assertions.assertEquals(3, outputs.size());
+        for (ItemStack output : outputs)
+            assertStack(Items.DIAMOND_SWORD, 1, output);
+    }
+
+    @Test
+    @Tag("minecraft")
+    void EmptyOutputsAreSkipped() {
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(new ItemStack[] { ItemStack.EMPTY, new ItemStack(Items.DIRT, 1) }, 4);
+
+        Assertions.assertEquals(1, outputs.size());
+        assertStack(Items.DIRT, 4, outputs.get(0));
+
+        Assertions.assertTrue(CraftingHelper.getBatchOutputs(new ItemStack[] { new ItemStack(Items.DIRT, 1) }, 0).isEmpty());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void RecipeOutputsAreNotChanged() {
+        ItemStack[] recipe = { new ItemStack(Items.DIRT, 40), new ItemStack(Items.DIRT, 40) };
+
+        List<ItemStack> outputs = CraftingHelper.getBatchOutputs(recipe, 2);
+        outputs.forEach(stack -> stack.setCount(1));
+
+        assertStack(Items.DIRT, 40, recipe[0]);
+        assertStack(Items.DIRT, 40, recipe[1]);
+    }
+
+    @Test
+    @Tag("minecraft")
+    void EachCopyTakesOneCatalyst() {
+        int configured = ServerConfig.maxBatchSize;
+        try {
+            ServerConfig.maxBatchSize = 8;
+            MiniaturizationRecipe recipe = RecipeTestUtil.getRecipeFromFile("recipes/ender_crystal.json");
+
+            Assertions.assertEquals(1, CraftingHelper.getCatalystPerCopy(recipe));
+            Assertions.assertEquals(0, CraftingHelper.getMaxBatch(recipe, 0));
+            Assertions.assertEquals(1, CraftingHelper.getMaxBatch(recipe, 1));
+            Assertions.assertEquals(5, CraftingHelper.getMaxBatch(recipe, 5));
+
+            // Capped by config, however many catalysts there are
+            Assertions.assertEquals(8, CraftingHelper.getMaxBatch(recipe, 64));
+        } finally {
+            ServerConfig.maxBatchSize = configured;
+        }
+    }
+
+    private static void assertStack(Item item, int count, ItemStack actual) {
+        Assertions.assertEquals(item, actual.getItem());
+        Assertions.assertEquals(count, actual.getCount());
+    }
+}
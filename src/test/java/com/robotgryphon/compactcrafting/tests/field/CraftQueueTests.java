@@ -0,0 +1,177 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.crafting.CraftingHelper;
+import com.robotgryphon.compactcrafting.field.CraftQueue;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.tests.recipes.util.RecipeTestUtil;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraft.nbt.ListNBT;
+import net.minecraft.util.ResourceLocation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+public class CraftQueueTests {
+
+    private static final ResourceLocation RECIPE_ID = new ResourceLocation("compactcrafting", "test_ender_crystal");
+
+    private int craftQueueDepth;
+
+    @BeforeEach
+    void SaveConfig() {
+        this.craftQueueDepth = ServerConfig.craftQueueDepth;
+        ServerConfig.craftQueueDepth = 2;
+    }
+
+    @AfterEach
+    void RestoreConfig() {
+        ServerConfig.craftQueueDepth = craftQueueDepth;
+    }
+
+    @Test
+    void DepthFollowsConfig() {
+        CraftQueue queue = new CraftQueue();
+
+        ServerConfig.craftQueueDepth = 3;
+        Assertions.assertEquals(3, queue.getDepth());
+
+        // Config changes are picked up live
+        ServerConfig.craftQueueDepth = 5;
+        Assertions.assertEquals(5, queue.getDepth());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void FillsUpToTheDepth() {
+        MiniaturizationRecipe recipe = getRecipe();
+        CraftQueue queue = new CraftQueue();
+
+        Assertions.assertTrue(queue.isEmpty());
+        queue.stage(recipe, 1);
+        Assertions.assertFalse(queue.isFull());
+        queue.stage(recipe, 1);
+
+        Assertions.assertTrue(queue.isFull());
+        Assertions.assertEquals(2, queue.size());
+        Assertions.assertEquals(2, queue.getStagedCount());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void NextTakesStagedCraftsInOrder() {
+        MiniaturizationRecipe recipe = getRecipe();
+        RecipeManager recipes = new RecipeManager();
+        CraftQueue queue = new CraftQueue();
+
+        queue.stage(recipe, 2);
+        queue.stage(recipe, 3);
+
+        Optional<CraftQueue.StagedCraft> first = queue.next(recipes, 100, 1);
+        Assertions.assertTrue(first.isPresent());
+        Assertions.assertSame(recipe, first.get().getRecipe());
+        Assertions.assertEquals(2, first.get().getBatch());
+
+        Optional<CraftQueue.StagedCraft> second = queue.next(recipes, 120, 2);
+        Assertions.assertTrue(second.isPresent());
+        Assertions.assertEquals(3, second.get().getBatch());
+
+        // Nothing left; the finished craft still counts
+        Assertions.assertFalse(queue.next(recipes, 140, 3).isPresent());
+        Assertions.assertTrue(queue.isEmpty());
+
+        Assertions.assertEquals(3, queue.getCompletedCrafts());
+        Assertions.assertEquals(6, queue.getCompletedCopies());
+        Assertions.assertEquals(2, queue.getBackToBackStarts());
+        Assertions.assertEquals(20.0, queue.getAverageInterval());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void DrainPaysOutStagedCrafts() {
+        MiniaturizationRecipe recipe = getRecipe();
+        CraftQueue queue = new CraftQueue();
+
+        queue.stage(recipe, 2);
+        queue.stage(recipe, 1);
+
+        List<ItemStack> expected = new ArrayList<>(CraftingHelper.getBatchOutputs(recipe.getOutputs(), 2));
+        expected.addAll(CraftingHelper.getBatchOutputs(recipe.getOutputs(), 1));
+
+        List<ItemStack> drained = queue.drain(new RecipeManager());
+        Assertions.assertEquals(expected.size(), drained.size());
+        for (int i = 0; i < expected.size(); i++) {
+            Assertions.assertEquals(expected.get(i).getItem(), drained.get(i).getItem());
+            Assertions.assertEquals(expected.get(i).getCount(), drained.get(i).getCount());
+        }
+
+        Assertions.assertTrue(queue.isEmpty());
+        Assertions.assertTrue(queue.drain(new RecipeManager()).isEmpty());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void StagedCraftsSurviveSaveAndLoad() {
+        MiniaturizationRecipe recipe = getRecipe();
+        RecipeManager recipes = new RecipeManager();
+        recipes.replaceRecipes(Collections.<IRecipe<?>>singletonList(recipe));
+
+        CraftQueue queue = new CraftQueue();
+        queue.stage(recipe, 4);
+
+        CraftQueue loaded = new CraftQueue();
+        loaded.deserializeNBT(queue.serializeNBT());
+        Assertions.assertEquals(1, loaded.size());
+
+        Optional<CraftQueue.StagedCraft> next = loaded.next(recipes, 0, 1);
+        Assertions.assertTrue(next.isPresent());
+        Assertions.assertSame(recipe, next.get().getRecipe());
+        Assertions.assertEquals(4, next.get().getBatch());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void CraftsForRemovedRecipesAreSkipped() {
+        MiniaturizationRecipe recipe = getRecipe();
+        RecipeManager recipes = new RecipeManager();
+        recipes.replaceRecipes(Collections.<IRecipe<?>>singletonList(recipe));
+
+        ListNBT staged = new ListNBT();
+        staged.add(stagedEntry(new ResourceLocation("compactcrafting", "removed"), 1));
+        staged.add(stagedEntry(RECIPE_ID, 2));
+
+        CompoundNBT nbt = new CompoundNBT();
+        nbt.put("staged", staged);
+
+        CraftQueue queue = new CraftQueue();
+        queue.deserializeNBT(nbt);
+
+        Optional<CraftQueue.StagedCraft> next = queue.next(recipes, 0, 1);
+        Assertions.assertTrue(next.isPresent());
+        Assertions.assertEquals(2, next.get().getBatch());
+        Assertions.assertTrue(queue.isEmpty());
+    }
+
+    private static CompoundNBT stagedEntry(ResourceLocation recipe, int batch) {
+        CompoundNBT entry = new CompoundNBT();
+        entry.putString("recipe", recipe.toString());
+        entry.putInt("batch", batch);
+        return entry;
+    }
+
+    private static MiniaturizationRecipe getRecipe() {
+        MiniaturizationRecipe recipe = RecipeTestUtil.getRecipeFromFile("recipes/ender_crystal.json");
+        recipe.setId(RECIPE_ID);
+        return recipe;
+    }
+}
@@ -0,0 +1,93 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.field.FieldMatchCache;
+import com.robotgryphon.compactcrafting.util.BlockSpaceUtil;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FieldMatchCacheTests {
+
+    // 3 wide, 1 high, 2 deep; an L shape that looks different in every rotation
+    private static final int[] LAYOUT = {
+            1, 2, 3,
+            4, 0, 0
+    };
+
+    @Test
+    void RotatedLayoutsShareAKey() {
+        FieldMatchCache.Key key = FieldMatchCache.Key.of(LAYOUT, 3, 1, 2);
+
+        // Turned a quarter: 2 wide, 3 deep
+        int[] turned = new int[6];
+        for (int z = 0; z < 2; z++)
+            for (int x = 0; x < 3; x++)
+                turned[BlockSpaceUtil.getFlatIndex(1 - z, 0, x, 2, 3)] = LAYOUT[BlockSpaceUtil.getFlatIndex(x, 0, z, 3, 2)];
+
+        Assertions.assertEquals(key, FieldMatchCache.Key.of(turned, 2, 1, 3));
+        Assertions.assertEquals(key.hashCode(), FieldMatchCache.Key.of(turned, 2, 1, 3).hashCode());
+
+        // Turned halfway
+        int[] flipped = new int[6];
+        for (int i = 0; i < 6; i++)
+            flipped[5 - i] = LAYOUT[i];
+
+        Assertions.assertEquals(key, FieldMatchCache.Key.of(flipped, 3, 1, 2));
+    }
+
+    @Test
+    void DifferentLayoutsHaveDifferentKeys() {
+        FieldMatchCache.Key key = FieldMatchCache.Key.of(LAYOUT, 3, 1, 2);
+
+        Assertions.assertNotEquals(key, FieldMatchCache.Key.of(new int[] { 1, 2, 3, 4, 5, 0 }, 3, 1, 2));
+        Assertions.assertNotEquals(key, FieldMatchCache.Key.of(LAYOUT, 3, 2, 1));
+    }
+
+    @Test
+    void RemembersNegativeResults() {
+        FieldMatchCache cache = new FieldMatchCache(() -> 16);
+        FieldMatchCache.Key key = FieldMatchCache.Key.of(LAYOUT, 3, 1, 2);
+
+        Assertions.assertNull(cache.lookup(key, 1));
+        cache.store(key, 1, null);
+
+        FieldMatchCache.Result result = cache.lookup(key, 1);
+        Assertions.assertNotNull(result);
+        Assertions.assertFalse(result.getRecipe().isPresent());
+
+        Assertions.assertEquals(1, cache.getHits());
+        Assertions.assertEquals(1, cache.getMisses());
+        Assertions.assertEquals(0.5, cache.getHitRate());
+    }
+
+    @Test
+    void NewGenerationClearsEntries() {
+        FieldMatchCache cache = new FieldMatchCache(() -> 16);
+        FieldMatchCache.Key key = FieldMatchCache.Key.of(LAYOUT, 3, 1, 2);
+
+        cache.store(key, 1, null);
+        Assertions.assertNull(cache.lookup(key, 2));
+        Assertions.assertEquals(0, cache.size());
+
+        // Results from a scan against the old recipes are thrown away
+        cache.store(key, 1, null);
+        Assertions.assertEquals(0, cache.size());
+    }
+
+    @Test
+    void EvictsLeastRecentlyUsed() {
+        FieldMatchCache cache = new FieldMatchCache(() -> 2);
+        FieldMatchCache.Key a = FieldMatchCache.Key.of(new int[] { 1 }, 1, 1, 1);
+        FieldMatchCache.Key b = FieldMatchCache.Key.of(new int[] { 2 }, 1, 1, 1);
+        FieldMatchCache.Key c = FieldMatchCache.Key.of(new int[] { 3 }, 1, 1, 1);
+
+        cache.store(a, 1, null);
+        cache.store(b, 1, null);
+        cache.lookup(a, 1);
+        cache.store(c, 1, null);
+
+        Assertions.assertEquals(2, cache.size());
+        Assertions.assertEquals(1, cache.getEvictions());
+        Assertions.assertNotNull(cache.lookup(a, 1));
+        Assertions.assertNull(cache.lookup(b, 1));
+    }
+}
@@ -0,0 +1,230 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.ServerConfig;
+import com.robotgryphon.compactcrafting.field.FieldOutputs;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.nbt.CompoundNBT;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemStackHandler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class FieldOutputsTests {
+
+    private boolean spawnOutputItems;
+    private int outputBufferStacks;
+
+    private final List<ItemStack> dropped = new ArrayList<>();
+
+    @BeforeEach
+    void SaveConfig() {
+        this.spawnOutputItems = ServerConfig.spawnOutputItems;
+        this.outputBufferStacks = ServerConfig.outputBufferStacks;
+        ServerConfig.spawnOutputItems = true;
+        ServerConfig.outputBufferStacks = 27;
+    }
+
+    @AfterEach
+    void RestoreConfig() {
+        ServerConfig.spawnOutputItems = spawnOutputItems;
+        ServerConfig.outputBufferStacks = outputBufferStacks;
+    }
+
+    @Test
+    @Tag("minecraft")
+    void InsertsIntoTargetsInOrder() {
+        FieldOutputs outputs = new FieldOutputs();
+        ItemStackHandler first = new ItemStackHandler(1);
+        ItemStackHandler second = new ItemStackHandler(1);
+
+        outputs.deliver(Arrays.asList(first, second), Arrays.asList(stack(Items.DIRT, 64), stack(Items.STONE, 10)), dropped::addAll);
+
+        assertStack(Items.DIRT, 64, first.getStackInSlot(0));
+        assertStack(Items.STONE, 10, second.getStackInSlot(0));
+        Assertions.assertEquals(74, outputs.getInsertedItems());
+        Assertions.assertEquals(0, outputs.getBufferedStacks());
+        Assertions.assertTrue(dropped.isEmpty());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void OverflowIsBuffered() {
+        FieldOutputs outputs = new FieldOutputs();
+        ItemStackHandler target = new ItemStackHandler(1);
+
+        outputs.deliver(Collections.singletonList(target), Arrays.asList(stack(Items.DIRT, 64), stack(Items.DIRT, 20)), dropped::addAll);
+
+        assertStack(Items.DIRT, 64, target.getStackInSlot(0));
+        Assertions.assertEquals(1, outputs.getBufferedStacks());
+        Assertions.assertEquals(64, outputs.getInsertedItems());
+        Assertions.assertTrue(dropped.isEmpty());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void BufferedStacksAreMerged() {
+        FieldOutputs outputs = new FieldOutputs();
+        List<IItemHandler> full = Collections.singletonList(fullHandler());
+
+        outputs.deliver(full, Collections.singletonList(stack(Items.DIRT, 40)), dropped::addAll);
+        outputs.deliver(full, Collections.singletonList(stack(Items.DIRT, 40)), dropped::addAll);
+
+        // 64 and 16, not 40 and 40
+        Assertions.assertEquals(2, outputs.getBufferedStacks());
+
+        outputs.dropBuffer(dropped::addAll);
+        Assertions.assertEquals(2, dropped.size());
+        assertStack(Items.DIRT, 64, dropped.get(0));
+        assertStack(Items.DIRT, 16, dropped.get(1));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void FullBufferDropsTheRest() {
+        ServerConfig.outputBufferStacks = 2;
+
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.singletonList(fullHandler()),
+                Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 64), stack(Items.SAND, 30)), dropped::addAll);
+
+        Assertions.assertEquals(2, outputs.getBufferedStacks());
+        Assertions.assertEquals(1, dropped.size());
+        assertStack(Items.SAND, 30, dropped.get(0));
+        Assertions.assertEquals(30, outputs.getDroppedItems());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void FullBufferStillMergesIntoBufferedStacks() {
+        ServerConfig.outputBufferStacks = 1;
+
+        FieldOutputs outputs = new FieldOutputs();
+        List<IItemHandler> full = Collections.singletonList(fullHandler());
+
+        outputs.deliver(full, Collections.singletonList(stack(Items.DIRT, 40)), dropped::addAll);
+        outputs.deliver(full, Collections.singletonList(stack(Items.DIRT, 40)), dropped::addAll);
+
+        // Topped up to a full stack; only what didn't fit is dropped
+        Assertions.assertEquals(1, outputs.getBufferedStacks());
+        Assertions.assertEquals(1, dropped.size());
+        assertStack(Items.DIRT, 16, dropped.get(0));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void SpawningOffBuffersWithNoTargets() {
+        ServerConfig.spawnOutputItems = false;
+
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.emptyList(), Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 64)), dropped::addAll);
+
+        Assertions.assertEquals(2, outputs.getBufferedStacks());
+        Assertions.assertFalse(outputs.isFull());
+        Assertions.assertTrue(dropped.isEmpty());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void BufferLimitHoldsWithSpawningOff() {
+        ServerConfig.outputBufferStacks = 1;
+        ServerConfig.spawnOutputItems = false;
+
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.emptyList(), Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 64)), dropped::addAll);
+
+        // Fields stop crafting once it's full; outputs already on their way past it still can't grow it
+        Assertions.assertEquals(1, outputs.getBufferedStacks());
+        Assertions.assertTrue(outputs.isFull());
+        Assertions.assertEquals(1, dropped.size());
+        assertStack(Items.GRAVEL, 64, dropped.get(0));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void NoTargetsDropsEverything() {
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.emptyList(), Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 3)), dropped::addAll);
+
+        Assertions.assertEquals(0, outputs.getBufferedStacks());
+        Assertions.assertEquals(2, dropped.size());
+        Assertions.assertEquals(67, outputs.getDroppedItems());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void FlushMovesWhatFits() {
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.singletonList(fullHandler()), Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 10)), dropped::addAll);
+        Assertions.assertEquals(2, outputs.getBufferedStacks());
+
+        // Room for the dirt and part of the gravel
+        ItemStackHandler target = new ItemStackHandler(2);
+        target.setStackInSlot(1, stack(Items.GRAVEL, 60));
+        outputs.flush(Collections.singletonList(target));
+
+        assertStack(Items.DIRT, 64, target.getStackInSlot(0));
+        assertStack(Items.GRAVEL, 64, target.getStackInSlot(1));
+        Assertions.assertEquals(1, outputs.getBufferedStacks());
+
+        outputs.dropBuffer(dropped::addAll);
+        assertStack(Items.GRAVEL, 6, dropped.get(0));
+    }
+
+    @Test
+    @Tag("minecraft")
+    void DropBufferEmptiesIt() {
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.singletonList(fullHandler()), Collections.singletonList(stack(Items.DIRT, 5)), dropped::addAll);
+
+        outputs.dropBuffer(dropped::addAll);
+
+        Assertions.assertEquals(0, outputs.getBufferedStacks());
+        Assertions.assertEquals(-1, outputs.getRetryTime());
+        Assertions.assertEquals(1, dropped.size());
+        Assertions.assertEquals(5, outputs.getDroppedItems());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void BufferSurvivesSaveAndLoad() {
+        FieldOutputs outputs = new FieldOutputs();
+        outputs.deliver(Collections.singletonList(fullHandler()), Arrays.asList(stack(Items.DIRT, 64), stack(Items.GRAVEL, 10)), dropped::addAll);
+
+        CompoundNBT nbt = outputs.serializeNBT();
+        FieldOutputs loaded = new FieldOutputs();
+        loaded.deserializeNBT(nbt);
+
+        Assertions.assertEquals(2, loaded.getBufferedStacks());
+
+        // Retried on the first tick after loading
+        Assertions.assertEquals(0, loaded.getRetryTime());
+    }
+
+    /**
+     * An inventory with one slot that's already full, so nothing goes in.
+     */
+    private static ItemStackHandler fullHandler() {
+        ItemStackHandler handler = new ItemStackHandler(1);
+        handler.setStackInSlot(0, stack(Items.BEDROCK, 64));
+        return handler;
+    }
+
+    private static ItemStack stack(Item item, int count) {
+        return new ItemStack(item, count);
+    }
+
+    private static void assertStack(Item item, int count, ItemStack actual) {
+        Assertions.assertEquals(item, actual.getItem());
+        Assertions.assertEquals(count, actual.getCount());
+    }
+}
@@ -0,0 +1,160 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.field.FieldScanQueue;
+import com.robotgryphon.compactcrafting.field.capability.ActiveWorldFields;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+public class FieldScanQueueTests {
+
+    /**
+     * Large enough that a test never runs out of budget.
+     */
+    private static final long NO_LIMIT = Long.MAX_VALUE / 2;
+
+    @Test
+    void ScansInRequestOrder() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, 3);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        for (TestField field : registered)
+            queue.request(field, 0);
+
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        Assertions.assertEquals(3, queue.tick(1, NO_LIMIT, fields, f -> false, scanned::add));
+        Assertions.assertEquals(registered, scanned);
+        Assertions.assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    void FieldsNearPlayersGoFirst() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, 3);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        for (TestField field : registered)
+            queue.request(field, 0);
+
+        Set<IMiniaturizationField> nearby = Collections.singleton(registered.get(2));
+
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        queue.tick(1, NO_LIMIT, fields, nearby::contains, scanned::add);
+        Assertions.assertEquals(Arrays.asList(registered.get(2), registered.get(0), registered.get(1)), scanned);
+    }
+
+    @Test
+    void SpentBudgetStillScansOne() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, 3);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        for (TestField field : registered)
+            queue.request(field, 0);
+
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        for (long t = 1; t <= 3; t++) {
+            Assertions.assertEquals(1, queue.tick(t, 0, fields, f -> false, scanned::add), "Wrong scan count at " + t);
+            Assertions.assertEquals(3 - t, queue.getDepth());
+        }
+
+        Assertions.assertEquals(registered, scanned);
+        Assertions.assertEquals(0, queue.tick(4, 0, fields, f -> false, scanned::add));
+    }
+
+    @Test
+    void LongWaitingFieldsArePromoted() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, FieldScanQueue.MAX_WAIT + 2);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        // Far from everyone, and there's always a nearby field asking after it
+        TestField far = registered.get(0);
+        queue.request(far, 0);
+
+        Predicate<IMiniaturizationField> nearby = f -> f != far;
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        for (int t = 0; t < FieldScanQueue.MAX_WAIT; t++) {
+            queue.request(registered.get(t + 1), t);
+            queue.tick(t, 0, fields, nearby, scanned::add);
+
+            Assertions.assertFalse(scanned.contains(far), "Far field scanned before its wait ran out, at " + t);
+        }
+
+        // Waited long enough to count as nearby, and it asked first
+        queue.request(registered.get(FieldScanQueue.MAX_WAIT + 1), FieldScanQueue.MAX_WAIT);
+        queue.tick(FieldScanQueue.MAX_WAIT, 0, fields, nearby, scanned::add);
+
+        Assertions.assertSame(far, scanned.get(scanned.size() - 1));
+        Assertions.assertEquals(FieldScanQueue.MAX_WAIT, queue.getMaxWait());
+    }
+
+    @Test
+    void RepeatRequestsKeepTheirPlace() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, 2);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        queue.request(registered.get(0), 0);
+        queue.request(registered.get(1), 1);
+        queue.request(registered.get(0), 2);
+        Assertions.assertEquals(2, queue.getDepth());
+
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        queue.tick(5, NO_LIMIT, fields, f -> false, scanned::add);
+
+        Assertions.assertEquals(registered, scanned);
+        Assertions.assertEquals(2, queue.getScanCount());
+        Assertions.assertEquals(4.5, queue.getAverageWait());
+        Assertions.assertEquals(5, queue.getMaxWait());
+    }
+
+    @Test
+    void SkipsFieldsRemovedWhileWaiting() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, 2);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        queue.request(registered.get(0), 0);
+        queue.request(registered.get(1), 0);
+        fields.unregisterField(registered.get(0));
+
+        List<IMiniaturizationField> scanned = new ArrayList<>();
+        Assertions.assertEquals(1, queue.tick(1, NO_LIMIT, fields, f -> false, scanned::add));
+        Assertions.assertEquals(Collections.singletonList(registered.get(1)), scanned);
+        Assertions.assertEquals(0, queue.getDepth());
+    }
+
+    @Test
+    void ScannedFieldsAreWoken() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1).get(0);
+        FieldScanQueue queue = new FieldScanQueue();
+
+        // Let it settle after registering
+        fields.tickFields(0, f -> ((TestField) f).ticks++);
+        Assertions.assertEquals(0, fields.getScheduledCount());
+
+        queue.request(field, 0);
+        queue.tick(0, NO_LIMIT, fields, f -> false, f -> {});
+
+        Assertions.assertEquals(1, fields.tickFields(1, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(2, field.ticks);
+    }
+
+    private static List<TestField> register(ActiveWorldFields fields, int count) {
+        List<TestField> registered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            TestField field = new TestField(new BlockPos(i * 32, 64, 0), -1);
+            fields.registerField(field);
+            registered.add(field);
+        }
+
+        return registered;
+    }
+}
@@ -0,0 +1,194 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.field.capability.ActiveWorldFields;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class FieldSchedulerBenchmarks {
+
+    private static final int FIELDS = 500;
+    private static final int TICKS = 20_000;
+
+    @Test
+    void IdleFieldsDoNotTick() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        List<TestField> registered = register(fields, FIELDS, -1);
+
+        // Registering wakes every field once so it can settle
+        Assertions.assertEquals(FIELDS, fields.tickFields(0, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(0, fields.getScheduledCount());
+
+        int ticked = 0;
+        for (long t = 1; t <= TICKS; t++)
+            ticked += fields.tickFields(t, f -> ((TestField) f).ticks++);
+
+        Assertions.assertEquals(0, ticked);
+        for (TestField field : registered)
+            Assertions.assertEquals(1, field.ticks);
+    }
+
+    @Test
+    void IdleFieldsDoLessWorkThanPolling() {
+        ActiveWorldFields idle = new ActiveWorldFields();
+        List<TestField> idleFields = register(idle, FIELDS, -1);
+
+        // The old behaviour: every field ticks every tick just to find it has nothing to do
+        ActiveWorldFields polling = new ActiveWorldFields();
+        List<TestField> pollingFields = register(polling, FIELDS, 1);
+
+        // Warm up both
+        run(idle, 0, TICKS);
+        run(polling, 0, TICKS);
+
+        long idleNanos = run(idle, TICKS, TICKS);
+        long pollingNanos = run(polling, TICKS, TICKS);
+
+        CompactCrafting.LOGGER.info("{} idle fields over {} ticks: sleeping {} ms, polling {} ms",
+                FIELDS, TICKS, idleNanos / 1_000_000.0, pollingNanos / 1_000_000.0);
+
+        // The timings are only logged; the tick counts are what show idle fields do no work
+        for (TestField field : idleFields)
+            Assertions.assertEquals(1, field.ticks, "Idle field ticked after settling");
+
+        for (TestField field : pollingFields)
+            Assertions.assertEquals(2 * TICKS, field.ticks, "Polled field missed a tick");
+
+        Assertions.assertEquals(0, idle.getScheduledCount());
+        Assertions.assertEquals(FIELDS, polling.getScheduledCount());
+    }
+
+    @Test
+    void ScheduledFieldTicksOnlyWhenDue() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, 30).get(0);
+
+        fields.tickFields(0, f -> ((TestField) f).ticks++);
+        field.delay = -1;
+
+        for (long t = 1; t < 30; t++)
+            Assertions.assertEquals(0, fields.tickFields(t, f -> ((TestField) f).ticks++), "Ticked early at " + t);
+
+        Assertions.assertEquals(1, fields.tickFields(30, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(2, field.ticks);
+
+        // Asleep again until something wakes it
+        for (long t = 31; t < 200; t++)
+            Assertions.assertEquals(0, fields.tickFields(t, f -> ((TestField) f).ticks++));
+
+        fields.wakeField(field);
+        Assertions.assertEquals(1, fields.tickFields(200, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(3, field.ticks);
+    }
+
+    @Test
+    void WakeReplacesLaterSchedule() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, 500).get(0);
+
+        fields.tickFields(0, f -> ((TestField) f).ticks++);
+        field.delay = -1;
+
+        // Woken well before its scheduled time; the later entry must not tick it a second time
+        fields.wakeField(field);
+        Assertions.assertEquals(1, fields.tickFields(1, f -> ((TestField) f).ticks++));
+
+        int ticked = 0;
+        for (long t = 2; t <= 1000; t++)
+            ticked += fields.tickFields(t, f -> ((TestField) f).ticks++);
+
+        Assertions.assertEquals(0, ticked);
+    }
+
+    @Test
+    void TimeGoingBackwardsWakesScheduledFields() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, 500).get(0);
+
+        Assertions.assertEquals(1, fields.tickFields(1000, f -> ((TestField) f).ticks++));
+
+        // Scheduled for 1500, but the clock was set back; it ticks right away and reschedules from there
+        Assertions.assertEquals(1, fields.tickFields(10, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(2, field.ticks);
+
+        for (long t = 11; t < 510; t++)
+            Assertions.assertEquals(0, fields.tickFields(t, f -> ((TestField) f).ticks++), "Ticked early at " + t);
+
+        Assertions.assertEquals(1, fields.tickFields(510, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(3, field.ticks);
+    }
+
+    @Test
+    void UnregisteredFieldsNeverTick() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, -1).get(0);
+
+        fields.unregisterField(field);
+        Assertions.assertEquals(0, fields.tickFields(0, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(0, field.ticks);
+    }
+
+    @Test
+    void FieldsSleepWhileUnloadedAndWakeOnChunkLoad() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, -1).get(0);
+        ChunkPos chunk = new ChunkPos(field.getCenter());
+
+        fields.setChunkLoaded(chunk, false);
+        Assertions.assertEquals(1, fields.tickFields(0, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(0, field.ticks, "Unloaded field was ticked");
+
+        for (long t = 1; t < 100; t++)
+            Assertions.assertEquals(0, fields.tickFields(t, f -> ((TestField) f).ticks++));
+
+        fields.setChunkLoaded(chunk, true);
+        Assertions.assertEquals(1, fields.tickFields(100, f -> ((TestField) f).ticks++));
+        Assertions.assertEquals(1, field.ticks);
+    }
+
+    @Test
+    void FieldsWaitForEntityTicking() {
+        ActiveWorldFields fields = new ActiveWorldFields();
+        TestField field = register(fields, 1, -1).get(0);
+
+        int checks = 0;
+        for (long t = 0; t < 100; t++)
+            checks += fields.tickFields(t, f -> false, f -> ((TestField) f).ticks++);
+
+        // Rechecked now and then, never ticked
+        Assertions.assertEquals(0, field.ticks);
+        Assertions.assertTrue(checks > 1 && checks < 10, "Unexpected recheck count " + checks);
+
+        int ticked = 0;
+        for (long t = 100; t < 200; t++)
+            ticked += fields.tickFields(t, f -> true, f -> ((TestField) f).ticks++);
+
+        Assertions.assertEquals(1, ticked);
+        Assertions.assertEquals(1, field.ticks);
+    }
+
+    private static long run(ActiveWorldFields fields, long from, int ticks) {
+        long start = System.nanoTime();
+        for (long t = from; t < from + ticks; t++)
+            fields.tickFields(t, f -> ((TestField) f).ticks++);
+
+        return System.nanoTime() - start;
+    }
+
+    private static List<TestField> register(ActiveWorldFields fields, int count, long delay) {
+        List<TestField> registered = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Spread out so they don't share chunk sections
+            TestField field = new TestField(new BlockPos((i % 25) * 32, 64, (i / 25) * 32), delay);
+            fields.registerField(field);
+            registered.add(field);
+        }
+
+        return registered;
+    }
+}
@@ -0,0 +1,102 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.crafting.EnumCraftingState;
+import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
+import com.robotgryphon.compactcrafting.field.capability.IMiniaturizationField;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.world.World;
+
+import java.util.Optional;
+
+/**
+ * Bare field for exercising the scheduler and queues without a world.
+ */
+class TestField implements IMiniaturizationField {
+    private BlockPos center;
+    long delay;
+    int ticks;
+    private boolean loaded = true;
+
+    TestField(BlockPos center, long delay) {
+        this.center = center;
+        this.delay = delay;
+    }
+
+    @Override
+    public long getNextTickTime(long gameTime) {
+        return delay < 0 ? -1 : gameTime + delay;
+    }
+
+    @Override
+    public AxisAlignedBB getBounds() {
+        return new AxisAlignedBB(center).inflate(2);
+    }
+
+    @Override
+    public FieldProjectionSize getFieldSize() {
+        return FieldProjectionSize.SMALL;
+    }
+
+    @Override
+    public BlockPos getCenter() {
+        return center;
+    }
+
+    @Override
+    public void setCenter(BlockPos center) {
+        this.center = center;
+    }
+
+    @Override
+    public void setSize(FieldProjectionSize size) {
+    }
+
+    @Override
+    public Optional<MiniaturizationRecipe> getCurrentRecipe() {
+        return Optional.empty();
+    }
+
+    @Override
+    public void clearRecipe() {
+    }
+
+    @Override
+    public void completeCraft() {
+    }
+
+    @Override
+    public EnumCraftingState getCraftingState() {
+        return EnumCraftingState.NOT_MATCHED;
+    }
+
+    @Override
+    public void doRecipeScan(World level) {
+    }
+
+    @Override
+    public void setCraftingState(EnumCraftingState state) {
+    }
+
+    @Override
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Override
+    public long[] getRequiredChunks() {
+        return new long[] { ChunkPos.asLong(center.getX() >> 4, center.getZ() >> 4) };
+    }
+
+    @Override
+    public boolean setChunkLoaded(long chunk, boolean loaded) {
+        this.loaded = loaded;
+        return loaded;
+    }
+
+    @Override
+    public void markFieldChanged(World world) {
+    }
+}
@@ -0,0 +1,80 @@
+package com.robotgryphon.compactcrafting.tests.field;
+
+import com.robotgryphon.compactcrafting.field.FieldProjectionSize;
+import com.robotgryphon.compactcrafting.field.VirtualField;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipe;
+import com.robotgryphon.compactcrafting.recipes.MiniaturizationRecipeIndex;
+import com.robotgryphon.compactcrafting.tests.recipes.util.RecipeTestUtil;
+import net.minecraft.item.ItemStack;
+import net.minecraft.item.Items;
+import net.minecraft.item.crafting.IRecipe;
+import net.minecraft.item.crafting.RecipeManager;
+import net.minecraft.util.ResourceLocation;
+import net.minecraftforge.items.IItemHandler;
+import net.minecraftforge.items.ItemHandlerHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+public class VirtualFieldTests {
+
+    private static final int FIRST_INPUT = VirtualField.CATALYST_SLOT + 1;
+
+    @AfterEach
+    void ClearIndex() {
+        MiniaturizationRecipeIndex.clear();
+    }
+
+    @Test
+    @Tag("minecraft")
+    void ComponentsSkipTheCatalystSlot() {
+        MiniaturizationRecipeIndex.clear();
+        IItemHandler inventory = new VirtualField(FieldProjectionSize.MEDIUM).getInventory();
+
+        // Piped in the way a hopper would, into the first slot that takes it
+        ItemStack left = ItemHandlerHelper.insertItemStacked(inventory, new ItemStack(Items.OBSIDIAN, 10), false);
+
+        Assertions.assertTrue(left.isEmpty());
+        Assertions.assertTrue(inventory.getStackInSlot(VirtualField.CATALYST_SLOT).isEmpty());
+        Assertions.assertEquals(Items.OBSIDIAN, inventory.getStackInSlot(FIRST_INPUT).getItem());
+        Assertions.assertEquals(10, inventory.getStackInSlot(FIRST_INPUT).getCount());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void CatalystsOnlyGoInTheCatalystSlot() {
+        MiniaturizationRecipe recipe = RecipeTestUtil.getRecipeFromFile("recipes/ender_crystal.json");
+        recipe.setId(new ResourceLocation("compactcrafting", "test_ender_crystal"));
+
+        RecipeManager recipes = new RecipeManager();
+        recipes.replaceRecipes(Collections.<IRecipe<?>>singletonList(recipe));
+        MiniaturizationRecipeIndex.get(recipes);
+
+        IItemHandler inventory = new VirtualField(FieldProjectionSize.MEDIUM).getInventory();
+        Assertions.assertFalse(inventory.isItemValid(VirtualField.CATALYST_SLOT, new ItemStack(Items.GLASS)));
+        Assertions.assertFalse(inventory.isItemValid(FIRST_INPUT, new ItemStack(Items.ENDER_PEARL)));
+
+        ItemHandlerHelper.insertItemStacked(inventory, new ItemStack(Items.GLASS, 4), false);
+        ItemHandlerHelper.insertItemStacked(inventory, new ItemStack(Items.ENDER_PEARL, 2), false);
+
+        Assertions.assertEquals(Items.ENDER_PEARL, inventory.getStackInSlot(VirtualField.CATALYST_SLOT).getItem());
+        Assertions.assertEquals(Items.GLASS, inventory.getStackInSlot(FIRST_INPUT).getItem());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void UnusedItemsCanBeTakenBackOut() {
+        MiniaturizationRecipeIndex.clear();
+        IItemHandler inventory = new VirtualField(FieldProjectionSize.MEDIUM).getInventory();
+        ItemHandlerHelper.insertItemStacked(inventory, new ItemStack(Items.OBSIDIAN, 10), false);
+
+        // No recipe uses it on its own; it mustn't be stuck in there
+        ItemStack taken = inventory.extractItem(FIRST_INPUT, 64, false);
+        Assertions.assertEquals(Items.OBSIDIAN, taken.getItem());
+        Assertions.assertEquals(10, taken.getCount());
+        Assertions.assertTrue(inventory.getStackInSlot(FIRST_INPUT).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.robotgryphon.compactcrafting.tests.recipes.components;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.JsonOps;
+import com.robotgryphon.compactcrafting.CompactCrafting;
+import com.robotgryphon.compactcrafting.recipes.components.BlockComponent;
+import com.robotgryphon.compactcrafting.tests.util.FileHelper;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+public class BlockComponentBenchmarks {
+
+    private static final int WARMUP_ROUNDS = 200;
+    private static final int ROUNDS = 2000;
+
+    @Test
+    @Tag("minecraft")
+    void StairsBitsetMatchesPropertyFilters() {
+        // Cobblestone stairs, filtered to bottom half and straight shape
+        JsonElement json = FileHelper.INSTANCE.getJsonFromFile("components/block/block_properties.json");
+
+        BlockComponent comp = BlockComponent.CODEC.decode(JsonOps.INSTANCE, json)
+                .getOrThrow(false, Assertions::fail)
+                .getFirst();
+
+        compare("stairs", comp, Blocks.COBBLESTONE_STAIRS.getStateDefinition().getPossibleStates());
+    }
+
+    @Test
+    @Tag("minecraft")
+    void RedstoneWireBitsetMatchesPropertyFilters() {
+        Map<String, List<String>> props = new HashMap<>();
+        props.put("power", Arrays.asList("0", "15"));
+        props.put("north", Collections.singletonList("side"));
+
+        BlockComponent comp = new BlockComponent(Blocks.REDSTONE_WIRE, Optional.of(props));
+
+        compare("redstone wire", comp, Blocks.REDSTONE_WIRE.getStateDefinition().getPossibleStates());
+    }
+
+    private static void compare(String name, BlockComponent comp, List<BlockState> states) {
+        // Mix in a state from another block so the early-out is measured too
+        List<BlockState> tests = new ArrayList<>(states);
+        tests.add(Blocks.STONE.defaultBlockState());
+
+        for (BlockState state : tests)
+            Assertions.assertEquals(comp.matchesProperties(state), comp.matches(state), "Lookup disagrees with filters for " + state);
+
+        for (int i = 0; i < WARMUP_ROUNDS; i++) {
+            run(comp, tests, false);
+            run(comp, tests, true);
+        }
+
+        long filtered = time(comp, tests, false);
+        long lookup = time(comp, tests, true);
+
+        CompactCrafting.LOGGER.info("BlockComponent#matches on {} ({} states x {}): filters {} ms, lookup {} ms",
+                name, tests.size(), ROUNDS, filtered / 1_000_000.0, lookup / 1_000_000.0);
+    }
+
+    private static long time(BlockComponent comp, List<BlockState> tests, boolean lookup) {
+        long start = System.nanoTime();
+        int matched = 0;
+        for (int i = 0; i < ROUNDS; i++)
+            matched += run(comp, tests, lookup);
+
+        long elapsed = System.nanoTime() - start;
+        Assertions.assertTrue(matched >= 0);
+        return elapsed;
+    }
+
+    private static int run(BlockComponent comp, List<BlockState> tests, boolean lookup) {
+        int matched = 0;
+        for (BlockState state : tests) {
+            if (lookup ? comp.matches(state) : comp.matchesProperties(state))
+                matched++;
+        }
+
+        return matched;
+    }
+}
@@ -0,0 +1,32 @@
+package com.robotgryphon.compactcrafting.tests.recipes.layers;
+
+import com.robotgryphon.compactcrafting.recipes.layers.HollowComponentRecipeLayer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collection;
+
+public class HollowLayerTests {
+
+    @Test
+    @Tag("minecraft")
+    void WallPositionsMatchPerimeter() {
+        HollowComponentRecipeLayer layer = new HollowComponentRecipeLayer("G");
+        layer.setRecipeDimensions(new AxisAlignedBB(0, 0, 0, 5, 1, 3));
+
+        Collection<BlockPos> walls = layer.getWallPositions();
+
+        // 5x3 rectangle, minus the 3x1 inside
+        Assertions.assertEquals(12, layer.getNumberFilledPositions());
+        Assertions.assertEquals(12, walls.size());
+
+        for (BlockPos wall : walls)
+            Assertions.assertEquals("G", layer.getComponentForPosition(wall).orElse(null));
+
+        Assertions.assertFalse(layer.getComponentForPosition(new BlockPos(2, 0, 1)).isPresent());
+        Assertions.assertFalse(layer.getComponentForPosition(new BlockPos(5, 0, 0)).isPresent());
+    }
+}
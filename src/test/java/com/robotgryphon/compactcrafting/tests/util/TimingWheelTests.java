@@ -0,0 +1,158 @@
+package com.robotgryphon.compactcrafting.tests.util;
+
+import com.robotgryphon.compactcrafting.util.TimingWheel;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class TimingWheelTests {
+
+    @Test
+    void RoundsSlotCountUpToAPowerOfTwo() {
+        TimingWheel<String> wheel = new TimingWheel<>(5);
+        wheel.advance(0, (item, time) -> {});
+
+        // 8 slots; something 8 ticks out shares a slot with the next tick and must not fire with it
+        wheel.schedule("a", 9);
+        Assertions.assertEquals(Collections.emptyList(), advance(wheel, 1));
+        Assertions.assertEquals(Collections.singletonList("a@9"), advance(wheel, 9));
+    }
+
+    @Test
+    void FiresAtScheduledTime() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(0, (item, time) -> {});
+
+        Assertions.assertEquals(5, wheel.schedule("a", 5));
+        for (long t = 1; t < 5; t++)
+            Assertions.assertEquals(Collections.emptyList(), advance(wheel, t), "Fired early at " + t);
+
+        Assertions.assertEquals(Collections.singletonList("a@5"), advance(wheel, 5));
+        Assertions.assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void PastTimesFireOnNextAdvance() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(50, (item, time) -> {});
+
+        Assertions.assertEquals(51, wheel.schedule("a", 10));
+        Assertions.assertEquals(Collections.singletonList("a@51"), advance(wheel, 51));
+    }
+
+    @Test
+    void EntriesPastTheWheelWaitForTheirRound() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(0, (item, time) -> {});
+
+        // Same slot as 4, 12 and 28
+        wheel.schedule("a", 20);
+        for (long t = 1; t < 20; t++)
+            Assertions.assertEquals(Collections.emptyList(), advance(wheel, t), "Fired early at " + t);
+
+        Assertions.assertEquals(1, wheel.size());
+        Assertions.assertEquals(Collections.singletonList("a@20"), advance(wheel, 20));
+    }
+
+    @Test
+    void GapLongerThanTheWheelFiresEverythingDue() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(0, (item, time) -> {});
+
+        wheel.schedule("a", 3);
+        wheel.schedule("b", 10);
+        wheel.schedule("c", 100);
+
+        // Wraps around the wheel several times in one advance
+        List<String> fired = advance(wheel, 50);
+        Collections.sort(fired);
+
+        Assertions.assertEquals(Arrays.asList("a@3", "b@10"), fired);
+        Assertions.assertEquals(1, wheel.size());
+        Assertions.assertEquals(50, wheel.getCurrentTime());
+
+        Assertions.assertEquals(Collections.emptyList(), advance(wheel, 99));
+        Assertions.assertEquals(Collections.singletonList("c@100"), advance(wheel, 100));
+    }
+
+    @Test
+    void FirstAdvanceLooksAtEverySlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+
+        // Nothing to go on yet, so these are taken as given
+        Assertions.assertEquals(3, wheel.schedule("a", 3));
+        Assertions.assertEquals(1006, wheel.schedule("b", 1006));
+        Assertions.assertEquals(2000, wheel.schedule("c", 2000));
+
+        List<String> fired = advance(wheel, 1006);
+        Collections.sort(fired);
+
+        Assertions.assertEquals(Arrays.asList("a@3", "b@1006"), fired);
+        Assertions.assertEquals(1, wheel.size());
+    }
+
+    @Test
+    void RewindFiresEverything() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(100, (item, time) -> {});
+
+        wheel.schedule("a", 105);
+        wheel.schedule("b", 150);
+        wheel.schedule("c", 10_000);
+
+        // Time went backwards; nothing scheduled can be trusted
+        List<String> fired = advance(wheel, 20);
+        Collections.sort(fired);
+
+        Assertions.assertEquals(Arrays.asList("a@105", "b@150", "c@10000"), fired);
+        Assertions.assertEquals(0, wheel.size());
+        Assertions.assertEquals(20, wheel.getCurrentTime());
+
+        // Carries on from the new time
+        Assertions.assertEquals(21, wheel.schedule("d", 5));
+        Assertions.assertEquals(Collections.singletonList("d@21"), advance(wheel, 21));
+    }
+
+    @Test
+    void FiringCanScheduleIntoTheSameSlot() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(0, (item, time) -> {});
+        wheel.schedule("a", 1);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1, (item, time) -> {
+            fired.add(item + "@" + time);
+            wheel.schedule(item, time + 8);
+        });
+
+        Assertions.assertEquals(Collections.singletonList("a@1"), fired);
+        Assertions.assertEquals(1, wheel.size());
+
+        for (long t = 2; t < 9; t++)
+            Assertions.assertEquals(Collections.emptyList(), advance(wheel, t), "Fired early at " + t);
+
+        Assertions.assertEquals(Collections.singletonList("a@9"), advance(wheel, 9));
+    }
+
+    @Test
+    void ClearDropsEverything() {
+        TimingWheel<String> wheel = new TimingWheel<>(8);
+        wheel.advance(0, (item, time) -> {});
+        wheel.schedule("a", 1);
+        wheel.schedule("b", 30);
+
+        wheel.clear();
+        Assertions.assertEquals(0, wheel.size());
+        Assertions.assertEquals(Collections.emptyList(), advance(wheel, 30));
+    }
+
+    private static List<String> advance(TimingWheel<String> wheel, long now) {
+        List<String> fired = new ArrayList<>();
+        wheel.advance(now, (item, time) -> fired.add(item + "@" + time));
+        return fired;
+    }
+}